@@ -0,0 +1,31 @@
+package ru.clevertec.auth.audit;
+
+import java.time.Instant;
+
+/**
+ * A single authentication event recorded for the login audit trail.
+ *
+ * @param userId     the ID of the user, or null if the user could not be identified.
+ * @param username   the username the request was made for, may be null for token operations.
+ * @param type       the kind of authentication operation.
+ * @param success    whether the operation succeeded.
+ * @param occurredAt the moment the operation finished.
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record LoginActivity(Long userId, String username, Type type, boolean success, Instant occurredAt) {
+
+    public enum Type {
+        LOGIN,
+        REFRESH,
+        VALIDATE
+    }
+
+    public static LoginActivity succeeded(Long userId, String username, Type type) {
+        return new LoginActivity(userId, username, type, true, Instant.now());
+    }
+
+    public static LoginActivity failed(String username, Type type) {
+        return new LoginActivity(null, username, type, false, Instant.now());
+    }
+}
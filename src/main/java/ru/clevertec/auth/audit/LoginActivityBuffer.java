@@ -0,0 +1,87 @@
+package ru.clevertec.auth.audit;
+
+import org.jctools.queues.MpscArrayQueue;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free buffer between request threads and the audit writer.
+ * Any number of threads may offer events, but only a single thread may drain them.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class LoginActivityBuffer {
+
+    private static final long BLOCK_PARK_NANOS = 50_000;
+
+    private final MpscArrayQueue<LoginActivity> queue;
+    private final Overflow overflow;
+    private final LongAdder dropped = new LongAdder();
+
+    public LoginActivityBuffer(int capacity, Overflow overflow) {
+        this.queue = new MpscArrayQueue<>(capacity);
+        this.overflow = overflow;
+    }
+
+    /**
+     * Puts an event into the buffer. When the buffer is full the event is either dropped
+     * and counted or the caller waits for the writer to free a slot, depending on the overflow policy.
+     *
+     * @param activity the event to buffer.
+     * @return true if the event was buffered, false if it was dropped.
+     */
+    public boolean offer(LoginActivity activity) {
+        if (queue.offer(activity)) {
+            return true;
+        }
+        if (overflow == Overflow.BLOCK) {
+            while (!queue.offer(activity)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Removes up to {@code limit} events from the buffer. Must only be called from the writer thread.
+     *
+     * @param consumer the consumer receiving the events.
+     * @param limit    the maximum number of events to remove.
+     * @return the number of removed events.
+     */
+    public int drain(Consumer<LoginActivity> consumer, int limit) {
+        return queue.drain(consumer::accept, limit);
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full.
+     *
+     * @return the number of dropped events.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the approximate number of buffered events.
+     *
+     * @return the number of events waiting to be written.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    public enum Overflow {
+        DROP,
+        BLOCK
+    }
+}
@@ -0,0 +1,25 @@
+package ru.clevertec.auth.cache;
+
+import java.util.List;
+
+/**
+ * Names of the application caches.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public final class CacheNames {
+
+    public static final String USER_VERSIONS = "userVersions";
+    public static final String USER_SNAPSHOTS = "userSnapshots";
+    public static final String MISSING_USER_IDS = "missingUserIds";
+    public static final String MISSING_USERNAMES = "missingUsernames";
+
+    /**
+     * Caches keyed by user ID that must be evicted whenever the user changes.
+     */
+    public static final List<String> USER_ID_KEYED = List.of(USER_VERSIONS, USER_SNAPSHOTS, MISSING_USER_IDS);
+
+    private CacheNames() {
+    }
+}
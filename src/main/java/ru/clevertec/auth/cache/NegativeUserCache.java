@@ -0,0 +1,111 @@
+package ru.clevertec.auth.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import ru.clevertec.auth.service.props.UserCacheProperties;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, short-lived caches of user IDs and usernames known not to exist.
+ * Lookups for them are answered without a database round trip until the entry expires
+ * or any user changes.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class NegativeUserCache {
+
+    private final Cache<Long, Boolean> ids;
+    private final Cache<String, Boolean> usernames;
+    private final LongAdder savedQueries = new LongAdder();
+
+    public NegativeUserCache(UserCacheProperties properties) {
+        UserCacheProperties.Spec spec = properties.getMissing();
+        this.ids = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .build();
+        this.usernames = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .build();
+    }
+
+    /**
+     * Checks whether the user ID is known not to exist.
+     *
+     * @param id the ID of the user.
+     * @return true if no user with the ID existed when it was last looked up, false otherwise.
+     */
+    public boolean isMissing(long id) {
+        return hit(ids.getIfPresent(id));
+    }
+
+    /**
+     * Checks whether the username is known not to exist.
+     *
+     * @param username the username.
+     * @return true if no user with the username existed when it was last looked up, false otherwise.
+     */
+    public boolean isMissing(String username) {
+        return hit(usernames.getIfPresent(username));
+    }
+
+    /**
+     * Remembers that no user with the ID exists, after a lookup found none.
+     *
+     * @param id the ID of the user.
+     */
+    public void markMissing(long id) {
+        ids.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * Remembers that no user with the username exists, after a lookup found none.
+     *
+     * @param username the username.
+     */
+    public void markMissing(String username) {
+        usernames.put(username, Boolean.TRUE);
+    }
+
+    /**
+     * Returns the number of lookups answered from this cache instead of the database.
+     *
+     * @return the number of saved queries.
+     */
+    public long savedQueries() {
+        return savedQueries.sum();
+    }
+
+    /**
+     * Returns the cache of missing IDs, for registration in the cache manager.
+     *
+     * @return the cache of missing IDs.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Cache<Object, Object> idCache() {
+        return (Cache) ids;
+    }
+
+    /**
+     * Returns the cache of missing usernames, for registration in the cache manager.
+     *
+     * @return the cache of missing usernames.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Cache<Object, Object> usernameCache() {
+        return (Cache) usernames;
+    }
+
+    private boolean hit(Boolean missing) {
+        if (missing == null) {
+            return false;
+        }
+        savedQueries.increment();
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.clevertec.auth.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.clevertec.auth.event.UserChangedEvent;
+import ru.clevertec.auth.resilience.UserLookupGuard;
+
+/**
+ * Evicts the cached data of a user once a change to that user has been committed.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictor {
+
+    private final CacheManager cacheManager;
+    private final UserLookupGuard userLookupGuard;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    /**
+     * Evicts the changed user after the transaction has been committed.
+     *
+     * @param event the committed user change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.userId());
+    }
+
+    /**
+     * Evicts a user from every user-keyed cache and drops the user's last known snapshot
+     * and verified credentials.
+     * The cache of missing usernames is cleared as a whole, because the change may have created
+     * or renamed any username.
+     *
+     * @param userId the ID of the user to evict.
+     */
+    public void evict(Long userId) {
+        for (String name : CacheNames.USER_ID_KEYED) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.evict(userId);
+            }
+        }
+        userLookupGuard.forget(userId);
+        verifiedCredentialCache.forget(userId);
+        Cache missingUsernames = cacheManager.getCache(CacheNames.MISSING_USERNAMES);
+        if (missingUsernames != null) {
+            missingUsernames.clear();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package ru.clevertec.auth.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.clevertec.auth.deadline.Deadline;
+import ru.clevertec.auth.deadline.DeadlineExceededException;
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
+import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.jfr.UserLookupEvent;
+import ru.clevertec.auth.mapper.UserMapper;
+import ru.clevertec.auth.repository.UserRepository;
+import ru.clevertec.auth.resilience.UserLookupGuard;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
+import ru.clevertec.auth.service.props.UserCacheProperties;
+import ru.clevertec.auth.service.props.UserLookupResilienceProperties;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading cache of user snapshots used by the token endpoints.
+ * Concurrent misses for the same user share a single load. Once an entry is older than the refresh
+ * interval, the stale snapshot keeps being served while one background reload runs. Entries expire
+ * after a jittered time to live, so users cached together do not expire together.
+ * Loads go through the {@link UserLookupGuard}; while it refuses them, cached snapshots are still served
+ * and a failed background reload keeps the stale one.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class UserSnapshotCache {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final NegativeUserCache negativeUserCache;
+    private final TransactionTemplate transactionTemplate;
+    private final UserLookupGuard userLookupGuard;
+    private final AsyncLoadingCache<Long, UserSnapshot> cache;
+    private final ThreadPoolExecutor executor;
+
+    public UserSnapshotCache(UserRepository userRepository,
+                             UserMapper userMapper,
+                             NegativeUserCache negativeUserCache,
+                             PlatformTransactionManager transactionManager,
+                             UserLookupGuard userLookupGuard,
+                             UserCacheProperties properties,
+                             UserLookupResilienceProperties resilienceProperties) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.negativeUserCache = negativeUserCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.userLookupGuard = userLookupGuard;
+        UserCacheProperties.Spec spec = properties.getSnapshots();
+        this.executor = newLoaderExecutor(resilienceProperties.getMaxConcurrentCalls(), spec.getMaximumSize());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .refreshAfterWrite(spec.getRefreshAfterWrite())
+                .expireAfter(new JitteredExpiry(spec.getExpireAfterWrite(), spec.getJitter()))
+                .executor(executor)
+                .buildAsync(this::load);
+    }
+
+    /**
+     * Stops the loader threads.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the snapshot of a user, loading it if it is not cached.
+     * IDs recently found not to exist are rejected without a query. A caller with a request deadline
+     * stops waiting for the load when the deadline passes; the load itself goes on for the other callers.
+     *
+     * @param id the ID of the user.
+     * @return the snapshot of the user.
+     * @throws EntityNotFoundException        if no user is found with the provided ID.
+     * @throws UserLookupUnavailableException if the user is not cached and cannot be loaded.
+     * @throws DeadlineExceededException      if the deadline of the request passes during the load.
+     */
+    public UserSnapshot get(long id) {
+        UserLookupEvent event = new UserLookupEvent();
+        event.begin();
+        event.setKey("id");
+        if (negativeUserCache.isMissing(id)) {
+            event.setSource(UserLookupEvent.NEGATIVE_CACHE);
+            event.commit();
+            throw EntityNotFoundException.of(User.class, id);
+        }
+        event.setSource(cache.getIfPresent(id) != null ? UserLookupEvent.CACHE : UserLookupEvent.DB);
+        try {
+            CompletableFuture<UserSnapshot> snapshot = cache.get(id);
+            return Deadline.current()
+                    .map(deadline -> deadline.await(snapshot, "user lookup"))
+                    .orElseGet(snapshot::join);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof EntityNotFoundException cause) {
+                negativeUserCache.markMissing(id);
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the underlying cache, for registration with the cache manager.
+     *
+     * @return the underlying cache.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AsyncCache<Object, Object> asyncCache() {
+        return (AsyncCache) cache;
+    }
+
+    /**
+     * Creates the executor of loads and refreshes. It has no more threads than the bulkhead admits
+     * lookups, and a queue bounded by the cache size; a load that does not fit runs on the calling thread,
+     * where the bulkhead fails it fast.
+     */
+    private static ThreadPoolExecutor newLoaderExecutor(int threads, long queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>((int) Math.min(queueCapacity, Integer.MAX_VALUE)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-snapshot-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private UserSnapshot load(Long id) {
+        UserSnapshot snapshot = userLookupGuard.call(() -> transactionTemplate.execute(status ->
+                userMapper.toSnapshot(userRepository.findById(id)
+                        .orElseThrow(() -> EntityNotFoundException.of(User.class, id)))));
+        userLookupGuard.remember(snapshot);
+        return snapshot;
+    }
+
+    private record JitteredExpiry(Duration timeToLive, double jitter) implements Expiry<Long, UserSnapshot> {
+
+        @Override
+        public long expireAfterCreate(Long key, UserSnapshot value, long currentTime) {
+            if (jitter <= 0) {
+                return timeToLive.toNanos();
+            }
+            return (long) (timeToLive.toNanos() * (1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter)));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, UserSnapshot value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, UserSnapshot value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
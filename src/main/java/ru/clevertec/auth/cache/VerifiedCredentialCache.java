@@ -0,0 +1,116 @@
+package ru.clevertec.auth.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import ru.clevertec.auth.security.DerivedKeys;
+import ru.clevertec.auth.security.JwtEntity;
+import ru.clevertec.auth.service.props.CredentialCacheProperties;
+import ru.clevertec.auth.service.props.JwtProperties;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, short-lived cache of credentials that recently passed the password check,
+ * so that machine clients logging in every few seconds do not pay a BCrypt check each time.
+ * Only the usernames listed in {@code cache.credentials.clients} are cached.
+ * <p>
+ * Entries are keyed by an HMAC of the username and password under a key derived from the server
+ * secret for this purpose only, so the password is never kept in a recoverable form. An entry is
+ * only honoured while the user's stored password hash is still the one it was verified against,
+ * and it is dropped whenever the user changes.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private final CredentialCacheProperties properties;
+    private final SecretKeySpec key;
+    private final Cache<String, Verified> verified;
+    private final LongAdder savedChecks = new LongAdder();
+
+    public VerifiedCredentialCache(CredentialCacheProperties properties, JwtProperties jwtProperties) {
+        this.properties = properties;
+        this.key = DerivedKeys.derive(jwtProperties.getSecret(), "credential-cache");
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+    }
+
+    /**
+     * Checks whether the credentials of a user recently passed the password check.
+     *
+     * @param user     the loaded user.
+     * @param password the presented password.
+     * @return true if the same credentials were verified against the current password hash of the user,
+     * false otherwise.
+     */
+    public boolean isVerified(JwtEntity user, String password) {
+        if (!isCached(user.getUsername())) {
+            return false;
+        }
+        Verified entry = verified.getIfPresent(keyOf(user.getUsername(), password));
+        if (entry == null || !entry.passwordHash().equals(user.getPassword())) {
+            return false;
+        }
+        savedChecks.increment();
+        return true;
+    }
+
+    /**
+     * Remembers credentials that have just passed the password check.
+     *
+     * @param user     the loaded user.
+     * @param password the presented password.
+     */
+    public void remember(JwtEntity user, String password) {
+        if (isCached(user.getUsername())) {
+            verified.put(keyOf(user.getUsername(), password), new Verified(user.getId(), user.getPassword()));
+        }
+    }
+
+    /**
+     * Drops every verified credential of a user.
+     *
+     * @param userId the ID of the user.
+     */
+    public void forget(Long userId) {
+        verified.asMap().values().removeIf(entry -> entry.userId().equals(userId));
+    }
+
+    /**
+     * Returns the number of password checks answered from this cache instead of BCrypt.
+     *
+     * @return the number of saved checks.
+     */
+    public long savedChecks() {
+        return savedChecks.sum();
+    }
+
+    private boolean isCached(String username) {
+        return properties.isEnabled() && properties.getClients().contains(username);
+    }
+
+    private String keyOf(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Credential key cannot be computed", e);
+        }
+    }
+
+    private record Verified(Long userId, String passwordHash) {
+    }
+}
@@ -0,0 +1,190 @@
+package ru.clevertec.auth.cache.invalidation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.clevertec.auth.cache.UserCacheEvictor;
+import ru.clevertec.auth.service.props.CacheInvalidationProperties;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Applies the invalidations published by other instances to the local caches.
+ * A dedicated connection, outside the pool, listens on the notification channel. Notifications
+ * sent while it is disconnected are lost, so every local cache is cleared when the connection
+ * drops and again once it listens again. A half-open connection would never report the drop on its own,
+ * so the connection uses TCP keepalive and every poll cycle without notifications ends with a
+ * {@code SELECT 1} bounded by {@code cache.invalidation.liveness-timeout}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class CacheInvalidationListener {
+
+    /**
+     * Application name of the listener connection, as shown in {@code pg_stat_activity}.
+     */
+    public static final String APPLICATION_NAME = "cache-invalidation-listener";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheInvalidationProperties properties;
+    private final CacheInvalidationPublisher publisher;
+    private final UserCacheEvictor userCacheEvictor;
+    private final CacheManager cacheManager;
+    private final Thread thread = new Thread(this::run, "cache-invalidation-listener");
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile Connection connection;
+
+    public CacheInvalidationListener(DataSourceProperties dataSourceProperties,
+                                     CacheInvalidationProperties properties,
+                                     CacheInvalidationPublisher publisher,
+                                     UserCacheEvictor userCacheEvictor,
+                                     CacheManager cacheManager) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = properties;
+        this.publisher = publisher;
+        this.userCacheEvictor = userCacheEvictor;
+        this.cacheManager = cacheManager;
+        if (!properties.getChannel().matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel: " + properties.getChannel());
+        }
+    }
+
+    /**
+     * Starts the listener thread.
+     */
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            running = true;
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the listener thread and closes its connection.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        closeQuietly(connection);
+        thread.interrupt();
+    }
+
+    /**
+     * Checks whether the listener is connected and receiving invalidations.
+     *
+     * @return true if the listener is connected, false otherwise.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection listening = connect()) {
+                connection = listening;
+                listening.setNetworkTimeout(Runnable::run, (int) properties.getLivenessTimeout().toMillis());
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                clearAll();
+                listening = true;
+                log.info("Listening for cache invalidations on channel {}", properties.getChannel());
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                int timeout = (int) properties.getPollTimeout().toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(timeout);
+                    if (notifications != null && notifications.length > 0) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    } else {
+                        checkAlive(listening);
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (running) {
+                    log.warn("Cache invalidation listener disconnected, clearing local caches: {}", e.getMessage());
+                    clearAll();
+                    pause();
+                }
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties info = new Properties();
+        if (dataSourceProperties.determineUsername() != null) {
+            info.setProperty("user", dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            info.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        info.setProperty("tcpKeepAlive", "true");
+        info.setProperty("ApplicationName", APPLICATION_NAME);
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), info);
+    }
+
+    private static void checkAlive(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+    }
+
+    private void apply(String payload) {
+        try {
+            CacheInvalidationMessage message = CacheInvalidationMessage.decode(payload);
+            if (message.origin().equals(publisher.getNodeId())) {
+                return;
+            }
+            if (message.entity() == CacheInvalidationMessage.Entity.USER) {
+                message.ids().forEach(userCacheEvictor::evict);
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void clearAll() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getReconnectDelay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.clevertec.auth.cache.invalidation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Invalidation message sent between instances over a Postgres notification channel.
+ * It is encoded as {@code origin;entity;id,id,...} to stay well below the 8000 byte payload limit.
+ *
+ * @param origin the node ID of the instance that made the change.
+ * @param entity the type of the changed entities.
+ * @param ids    the IDs of the changed entities.
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record CacheInvalidationMessage(String origin, Entity entity, Set<Long> ids) {
+
+    private static final String SEPARATOR = ";";
+
+    public enum Entity {
+        USER
+    }
+
+    public String encode() {
+        return origin + SEPARATOR + entity + SEPARATOR + join(ids);
+    }
+
+    /**
+     * Decodes a notification payload.
+     *
+     * @param payload the notification payload.
+     * @return the decoded message.
+     * @throws IllegalArgumentException if the payload is malformed.
+     */
+    public static CacheInvalidationMessage decode(String payload) {
+        String[] parts = payload.split(SEPARATOR, 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cache invalidation payload: " + payload);
+        }
+        Set<Long> ids = parts[2].isEmpty() ? Set.of() : Arrays.stream(parts[2].split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toSet());
+        return new CacheInvalidationMessage(parts[0], Entity.valueOf(parts[1]), ids);
+    }
+
+    private static String join(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
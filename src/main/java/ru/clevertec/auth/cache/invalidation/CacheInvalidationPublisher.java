@@ -0,0 +1,94 @@
+package ru.clevertec.auth.cache.invalidation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.clevertec.auth.event.UserChangedEvent;
+import ru.clevertec.auth.service.props.CacheInvalidationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Notifies the other instances about changed users through Postgres NOTIFY.
+ * The IDs changed within one transaction are coalesced and sent right before the commit;
+ * Postgres delivers the notification only if the transaction commits.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationPublisher {
+
+    private static final String NOTIFY = "select pg_notify(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationProperties properties;
+
+    /**
+     * The ID of this instance, used to skip its own notifications.
+     */
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Collects the changed user for the notification of the current transaction.
+     *
+     * @param event the user change.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(CacheInvalidationMessage.Entity.USER, Set.of(event.userId()));
+            return;
+        }
+        PendingInvalidation pending = (PendingInvalidation) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingInvalidation();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.userIds.add(event.userId());
+    }
+
+    /**
+     * Sends the invalidation of the given entities, split into messages of a bounded size.
+     *
+     * @param entity the type of the changed entities.
+     * @param ids    the IDs of the changed entities.
+     */
+    public void publish(CacheInvalidationMessage.Entity entity, Set<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += properties.getMaxIdsPerMessage()) {
+            List<Long> chunk = all.subList(from, Math.min(all.size(), from + properties.getMaxIdsPerMessage()));
+            String payload = new CacheInvalidationMessage(nodeId, entity, new LinkedHashSet<>(chunk)).encode();
+            jdbcTemplate.queryForList(NOTIFY, properties.getChannel(), payload);
+        }
+    }
+
+    private class PendingInvalidation implements TransactionSynchronization {
+
+        private final Set<Long> userIds = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            publish(CacheInvalidationMessage.Entity.USER, userIds);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationPublisher.this);
+        }
+    }
+}
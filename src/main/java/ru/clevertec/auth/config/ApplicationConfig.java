@@ -1,5 +1,7 @@
 package ru.clevertec.auth.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
@@ -7,22 +9,32 @@ import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementServerProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import ru.clevertec.auth.cache.VerifiedCredentialCache;
+import ru.clevertec.auth.security.CachingDaoAuthenticationProvider;
 import ru.clevertec.auth.security.JwtTokenFilter;
 import ru.clevertec.auth.security.JwtTokenProvider;
+import ru.clevertec.auth.security.ObservedPasswordEncoder;
 
 /**
  * Configuration class for the Spring Boot application.
@@ -36,16 +48,40 @@ import ru.clevertec.auth.security.JwtTokenProvider;
 @RequiredArgsConstructor(onConstructor = @__(@Lazy))
 public class ApplicationConfig {
 
+    /**
+     * Endpoints served by {@link #publicAuthFilterChain}.
+     */
+    public static final String[] PUBLIC_AUTH_ENDPOINTS = {
+            "/auth/login", "/auth/register", "/auth/refresh", "/auth/validate", "/auth/check"
+    };
+
     private final JwtTokenProvider tokenProvider;
 
     /**
      * Configures the password encoder to be used in the application.
      *
-     * @return a BCryptPasswordEncoder instance.
+     * @param observationRegistry the registry hashing is observed with.
+     * @return a BCryptPasswordEncoder instance wrapped into an ObservedPasswordEncoder.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(ObservationRegistry observationRegistry) {
+        return new ObservedPasswordEncoder(new BCryptPasswordEncoder(), observationRegistry);
+    }
+
+    /**
+     * Configures the provider checking the credentials of a login.
+     * Recently verified credentials of the configured machine clients are not checked with BCrypt again.
+     *
+     * @param userDetailsService      the service users are loaded with.
+     * @param passwordEncoder         the password encoder.
+     * @param verifiedCredentialCache the cache of recently verified credentials.
+     * @return a CachingDaoAuthenticationProvider instance.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         VerifiedCredentialCache verifiedCredentialCache) {
+        return new CachingDaoAuthenticationProvider(userDetailsService, passwordEncoder, verifiedCredentialCache);
     }
 
     /**
@@ -87,14 +123,49 @@ public class ApplicationConfig {
     }
 
     /**
-     * Configures the security filter chain for the application.
+     * Configures the security filter chain of the public authentication endpoints.
+     * These endpoints take their credentials or tokens from the request body and are open to everybody,
+     * so the chain carries neither the bearer token filter nor authorization, session, request cache
+     * or anonymous authentication filters; only the security headers are written.
+     * It is matched before {@link #filterChain}.
      *
      * @param httpSecurity the HttpSecurity to configure.
      * @return a SecurityFilterChain instance.
      */
     @Bean
+    @Order(1)
     @SneakyThrows
-    public SecurityFilterChain filterChain(HttpSecurity httpSecurity) {
+    public SecurityFilterChain publicAuthFilterChain(HttpSecurity httpSecurity) {
+        return httpSecurity
+                .securityMatcher(PUBLIC_AUTH_ENDPOINTS)
+                .csrf(AbstractHttpConfigurer::disable)
+                .cors(AbstractHttpConfigurer::disable)
+                .sessionManagement(AbstractHttpConfigurer::disable)
+                .securityContext(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .exceptionHandling(AbstractHttpConfigurer::disable)
+                .anonymous(AbstractHttpConfigurer::disable)
+                .servletApi(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .build();
+    }
+
+    /**
+     * Configures the security filter chain for the application.
+     *
+     * @param httpSecurity        the HttpSecurity to configure.
+     * @param meterRegistry       the registry the filter failure counters are registered in.
+     * @param observationRegistry the registry the filter is observed with.
+     * @param managementServerProperties the properties of the port the actuator endpoints are served on.
+     * @return a SecurityFilterChain instance.
+     */
+    @Bean
+    @Order(2)
+    @SneakyThrows
+    public SecurityFilterChain filterChain(HttpSecurity httpSecurity,
+                                           MeterRegistry meterRegistry,
+                                           ObservationRegistry observationRegistry,
+                                           ManagementServerProperties managementServerProperties) {
         httpSecurity
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(AbstractHttpConfigurer::disable)
@@ -110,13 +181,29 @@ public class ApplicationConfig {
                 .authorizeHttpRequests(configurer -> {
                     configurer.requestMatchers("/auth/**").permitAll();
                     configurer.requestMatchers("/users/**").hasRole("ADMIN");
+                    configurer.requestMatchers("/admin/**").hasRole("ADMIN");
                     configurer.requestMatchers("/swagger-ui/**").permitAll();
                     configurer.requestMatchers("/v3/api-docs/**").permitAll();
+                    configurer.requestMatchers("/actuator/health/**").permitAll();
+                    configurer.requestMatchers(prometheusScrape(managementServerProperties.getPort())).permitAll();
                     configurer.anyRequest().authenticated();
                 })
                 .anonymous(AbstractHttpConfigurer::disable)
-                .addFilterBefore(new JwtTokenFilter(tokenProvider),
+                .addFilterBefore(new JwtTokenFilter(tokenProvider, meterRegistry, observationRegistry),
                         UsernamePasswordAuthenticationFilter.class);
         return httpSecurity.build();
     }
+
+    /**
+     * Matches Prometheus scrapes arriving on the separate management port, which is not exposed publicly.
+     * On the application port the endpoint is not opened.
+     *
+     * @param managementPort the management port, or null or a non-positive value if there is none.
+     * @return the request matcher.
+     */
+    private static RequestMatcher prometheusScrape(Integer managementPort) {
+        return new AndRequestMatcher(
+                AntPathRequestMatcher.antMatcher("/actuator/prometheus"),
+                request -> managementPort != null && managementPort > 0 && request.getLocalPort() == managementPort);
+    }
 }
@@ -0,0 +1,51 @@
+package ru.clevertec.auth.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.clevertec.auth.cache.CacheNames;
+import ru.clevertec.auth.cache.NegativeUserCache;
+import ru.clevertec.auth.cache.UserSnapshotCache;
+import ru.clevertec.auth.service.props.UserCacheProperties;
+
+/**
+ * Configuration of the local Caffeine caches.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Configuration
+@EnableCaching
+@RequiredArgsConstructor
+public class CacheConfig {
+
+    private final UserCacheProperties properties;
+
+    /**
+     * Configures the cache manager with one Caffeine cache per cache name.
+     * The user snapshot cache is a loading cache owned by {@link UserSnapshotCache}; it is registered
+     * here only so that it is evicted and cleared together with the other caches.
+     *
+     * The caches of missing users are owned by {@link NegativeUserCache} and registered the same way.
+     *
+     * @param userSnapshotCache the user snapshot cache.
+     * @param negativeUserCache the caches of missing users.
+     * @return a CaffeineCacheManager instance.
+     */
+    @Bean
+    public CacheManager cacheManager(UserSnapshotCache userSnapshotCache, NegativeUserCache negativeUserCache) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheNames.USER_VERSIONS, Caffeine.newBuilder()
+                .maximumSize(properties.getVersions().getMaximumSize())
+                .expireAfterWrite(properties.getVersions().getExpireAfterWrite())
+                .build());
+        cacheManager.registerCustomCache(CacheNames.USER_SNAPSHOTS, userSnapshotCache.asyncCache());
+        cacheManager.registerCustomCache(CacheNames.MISSING_USER_IDS, negativeUserCache.idCache());
+        cacheManager.registerCustomCache(CacheNames.MISSING_USERNAMES, negativeUserCache.usernameCache());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.clevertec.auth.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import ru.clevertec.auth.limit.ConcurrencyLimitFilter;
+import ru.clevertec.auth.limit.ConcurrencyLimiter;
+import ru.clevertec.auth.limit.GradientLimit;
+import ru.clevertec.auth.limit.Lane;
+import ru.clevertec.auth.service.props.ConcurrencyLimitProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the adaptive concurrency limiter in front of the controllers.
+ * Enabled unless {@code limiter.enabled=false}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    private final ConcurrencyLimitProperties properties;
+
+    /**
+     * Configures the limiter shared by the limited paths, with its lanes in the configured priority order.
+     *
+     * @return a ConcurrencyLimiter instance.
+     */
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter() {
+        return new ConcurrencyLimiter(
+                new GradientLimit(
+                        properties.getInitialLimit(),
+                        properties.getMinLimit(),
+                        properties.getMaxLimit(),
+                        properties.getSmoothing(),
+                        properties.getRttTolerance(),
+                        properties.getLongWindow()),
+                properties.getLanes().stream()
+                        .map(lane -> new Lane(lane.getName(), lane.getShare()))
+                        .toList());
+    }
+
+    /**
+     * Registers the limiting filter ahead of the security filters, so rejected requests cost no token work.
+     *
+     * @param concurrencyLimiter the limiter.
+     * @return the filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter) {
+        Map<Lane, List<String>> lanePaths = new HashMap<>();
+        for (int i = 0; i < properties.getLanes().size(); i++) {
+            lanePaths.put(concurrencyLimiter.getLanes().get(i), properties.getLanes().get(i).getPaths());
+        }
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(concurrencyLimiter, properties.getPaths(), lanePaths));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.clevertec.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.clevertec.auth.datasource.ReadYourWritesTracker;
+import ru.clevertec.auth.datasource.ReplicaDataSources;
+import ru.clevertec.auth.datasource.ReplicationRoutingDataSource;
+import ru.clevertec.auth.service.props.DataSourceRoutingProperties;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration of read-replica routing.
+ * Enabled with {@code datasource.routing.enabled=true}; the primary pool is built from the regular
+ * {@code spring.datasource} properties and the replica pools from {@code datasource.routing.replicas}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private final DataSourceRoutingProperties routingProperties;
+
+    /**
+     * Configures the connection pool of the primary database.
+     *
+     * @param properties the standard data source properties.
+     * @return the primary HikariDataSource.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Configures the connection pools of the replicas and their health monitor.
+     * Replica pools are not beans, so their pool metrics are bound here rather than by Actuator.
+     *
+     * @param properties    the standard data source properties, used for defaults.
+     * @param meterRegistry the registry the pool metrics are registered in, if any.
+     * @return the replica pools.
+     */
+    @Bean
+    public ReplicaDataSources replicaDataSources(DataSourceProperties properties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (DataSourceRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            String name = replica.getName() != null ? replica.getName() : "replica-" + (replicas.size() + 1);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null
+                    ? replica.getUsername() : properties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null
+                    ? replica.getPassword() : properties.determinePassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            dataSource.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(name, dataSource);
+        }
+        return new ReplicaDataSources(replicas,
+                routingProperties.getMaxLag(), routingProperties.getHealthCheckInterval());
+    }
+
+    /**
+     * Configures the tracker that keeps a writer's reads on the primary right after its user write.
+     *
+     * @return a ReadYourWritesTracker instance.
+     */
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(
+                routingProperties.getStickyWindow(),
+                routingProperties.getStickyMaximumWriters(),
+                routingProperties.getStickySessionHeader());
+    }
+
+    /**
+     * Configures the application data source that routes read-only transactions to the replicas.
+     *
+     * @param primaryDataSource     the primary pool.
+     * @param replicaDataSources    the replica pools.
+     * @param readYourWritesTracker the read-your-writes tracker.
+     * @return the routing DataSource wrapped into a lazy connection proxy.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaDataSources replicaDataSources,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        ReplicationRoutingDataSource routingDataSource = new ReplicationRoutingDataSource(
+                replicaDataSources, readYourWritesTracker, routingProperties.isFallbackToPrimary());
+        Map<Object, Object> targets = new HashMap<>(replicaDataSources.dataSources());
+        targets.put(ReplicationRoutingDataSource.PRIMARY, primaryDataSource);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
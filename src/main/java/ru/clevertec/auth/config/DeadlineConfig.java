@@ -0,0 +1,43 @@
+package ru.clevertec.auth.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.clevertec.auth.deadline.DeadlineQueryTimeoutListener;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of request deadlines on the database side.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "deadline", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineConfig {
+
+    /**
+     * Wraps the application data source into a proxy that bounds every statement of a request
+     * by the request's remaining budget.
+     *
+     * @return the post processor wrapping the data source.
+     */
+    @Bean
+    public static BeanPostProcessor deadlineDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("deadline")
+                            .listener(new DeadlineQueryTimeoutListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package ru.clevertec.auth.config;
+
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.clevertec.auth.cache.NegativeUserCache;
+import ru.clevertec.auth.cache.VerifiedCredentialCache;
+import ru.clevertec.auth.limit.ConcurrencyLimiter;
+import ru.clevertec.auth.limit.Lane;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.resilience.UserLookupGuard;
+import ru.clevertec.auth.service.impl.LoginAuditServiceImpl;
+
+/**
+ * Configuration of the meters backed by counters the components keep themselves.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Exposes the number of lookups answered by the negative user cache.
+     *
+     * @param negativeUserCache the negative user cache.
+     * @return a MeterBinder instance.
+     */
+    @Bean
+    public MeterBinder negativeUserCacheMetrics(NegativeUserCache negativeUserCache) {
+        return registry -> FunctionCounter.builder(AuthMetrics.NEGATIVE_CACHE_SAVED_QUERIES,
+                        negativeUserCache, NegativeUserCache::savedQueries)
+                .description("User lookups answered by the negative cache instead of the database")
+                .register(registry);
+    }
+
+    /**
+     * Exposes the number of password checks answered by the verified credential cache.
+     *
+     * @param verifiedCredentialCache the verified credential cache.
+     * @return a MeterBinder instance.
+     */
+    @Bean
+    public MeterBinder verifiedCredentialCacheMetrics(VerifiedCredentialCache verifiedCredentialCache) {
+        return registry -> FunctionCounter.builder(AuthMetrics.CREDENTIAL_CACHE_SAVED_CHECKS,
+                        verifiedCredentialCache, VerifiedCredentialCache::savedChecks)
+                .description("Password checks answered by the verified credential cache instead of BCrypt")
+                .register(registry);
+    }
+
+    /**
+     * Exposes the number of login audit events dropped, by whether the buffer was full
+     * or their batch could not be written.
+     *
+     * @param loginAuditService the login audit service.
+     * @return a MeterBinder instance.
+     */
+    @Bean
+    public MeterBinder loginAuditMetrics(LoginAuditServiceImpl loginAuditService) {
+        return registry -> {
+            FunctionCounter.builder(AuthMetrics.LOGIN_AUDIT_DROPPED, loginAuditService, LoginAuditServiceImpl::dropped)
+                    .description("Login audit events dropped")
+                    .tag(AuthMetrics.TAG_REASON, "buffer_full")
+                    .register(registry);
+            FunctionCounter.builder(AuthMetrics.LOGIN_AUDIT_DROPPED,
+                            loginAuditService, LoginAuditServiceImpl::failedWrites)
+                    .description("Login audit events dropped")
+                    .tag(AuthMetrics.TAG_REASON, "write_failed")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Exposes the current limit and the requests in flight of the concurrency limiter,
+     * and the requests in flight and rejections of each of its lanes.
+     *
+     * @param concurrencyLimiter the concurrency limiter, if it is enabled.
+     * @return a MeterBinder instance.
+     */
+    @Bean
+    public MeterBinder concurrencyLimiterMetrics(ObjectProvider<ConcurrencyLimiter> concurrencyLimiter) {
+        return registry -> concurrencyLimiter.ifAvailable(limiter -> {
+            Gauge.builder(AuthMetrics.LIMITER_LIMIT, limiter, ConcurrencyLimiter::getLimit)
+                    .description("Requests currently allowed in flight")
+                    .register(registry);
+            Gauge.builder(AuthMetrics.LIMITER_IN_FLIGHT, limiter, ConcurrencyLimiter::getInFlight)
+                    .description("Requests in flight")
+                    .register(registry);
+            for (Lane lane : limiter.getLanes()) {
+                Gauge.builder(AuthMetrics.LIMITER_LANE_IN_FLIGHT, lane, Lane::getInFlight)
+                        .description("Requests in flight per lane")
+                        .tag(AuthMetrics.TAG_LANE, lane.getName())
+                        .register(registry);
+                FunctionCounter.builder(AuthMetrics.LIMITER_REJECTED, lane, Lane::getRejected)
+                        .description("Requests rejected with 503 because the limit was reached")
+                        .tag(AuthMetrics.TAG_LANE, lane.getName())
+                        .register(registry);
+            }
+        });
+    }
+
+    /**
+     * Exposes the state and calls of the circuit breaker and the bulkhead guarding user lookups.
+     *
+     * @param userLookupGuard the user lookup guard.
+     * @return a MeterBinder instance.
+     */
+    @Bean
+    public MeterBinder userLookupGuardMetrics(UserLookupGuard userLookupGuard) {
+        return registry -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(userLookupGuard.getCircuitBreakerRegistry())
+                    .bindTo(registry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(userLookupGuard.getBulkheadRegistry())
+                    .bindTo(registry);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package ru.clevertec.auth.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import ru.clevertec.auth.outbox.OutboxSink;
+import ru.clevertec.auth.outbox.WebhookOutboxSink;
+import ru.clevertec.auth.service.props.OutboxProperties;
+
+/**
+ * Configuration of the sink the user outbox is relayed to.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * Creates the webhook sink the relay publishes to.
+     * Startup fails if the relay is enabled without {@code outbox.sink.webhook-url}.
+     *
+     * @param properties the outbox properties.
+     * @return the configured OutboxSink instance, or a sink refusing every batch if the relay is disabled.
+     */
+    @Bean
+    public OutboxSink outboxSink(OutboxProperties properties) {
+        OutboxProperties.Sink sink = properties.getSink();
+        if (!properties.getRelay().isEnabled()) {
+            return messages -> {
+                throw new IllegalStateException("The user outbox relay is disabled");
+            };
+        }
+        if (sink.getWebhookUrl() == null || sink.getWebhookUrl().isBlank()) {
+            throw new IllegalStateException("outbox.sink.webhook-url must be set when outbox.relay.enabled is true");
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(sink.getConnectTimeout());
+        requestFactory.setReadTimeout(sink.getReadTimeout());
+        return new WebhookOutboxSink(RestClient.builder()
+                .baseUrl(sink.getWebhookUrl())
+                .requestFactory(requestFactory)
+                .build());
+    }
+}
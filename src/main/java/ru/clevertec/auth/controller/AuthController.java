@@ -1,16 +1,20 @@
 package ru.clevertec.auth.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import ru.clevertec.auth.entity.dto.auth.JwtRequest;
 import ru.clevertec.auth.entity.dto.auth.JwtResponse;
 import ru.clevertec.auth.entity.dto.user.UserRequest;
@@ -49,7 +53,8 @@ public interface AuthController {
     @Operation(
             summary = "Register new user",
             tags = {"Auth"},
-            description = "User registration. Returns user data.")
+            description = "User registration. Returns user data. A retry carrying the same Idempotency-Key "
+                    + "gets the response of the first request instead of registering again.")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "201", description = "Registration successful"),
@@ -59,7 +64,12 @@ public interface AuthController {
                             content = @Content(schema = @Schema(implementation = IncorrectData.class))),
                     @ApiResponse(
                             responseCode = "409",
-                            description = "User already exists",
+                            description = "User already exists, or a request with the same Idempotency-Key "
+                                    + "is still in progress",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "Idempotency-Key already used with a different request",
                             content = @Content(schema = @Schema(implementation = IncorrectData.class))),
                     @ApiResponse(
                             responseCode = "500",
@@ -67,7 +77,8 @@ public interface AuthController {
                             content = @Content(schema = @Schema(implementation = IncorrectData.class)))
             })
     @PostMapping("/register")
-    UserResponse register(@Validated(OnCreate.class) @RequestBody final UserRequest userDto);
+    UserResponse register(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                          @Validated(OnCreate.class) @RequestBody final UserRequest userDto);
 
     @Operation(
             summary = "Refresh JWT token",
@@ -114,4 +125,20 @@ public interface AuthController {
             })
     @PostMapping("/validate")
     ResponseEntity<JwtResponse> validate(@RequestBody final String token);
+
+    @Operation(
+            summary = "Check access token",
+            tags = {"Auth"},
+            description = "Token check for gateway authorization subrequests. Reads the bearer token "
+                    + "from the Authorization header and answers with headers only: the user's ID, UUID "
+                    + "and roles, and a private Cache-Control max-age bounded by the token's expiry.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "Token is valid"),
+                    @ApiResponse(responseCode = "401", description = "Token is missing or not valid")
+            })
+    @RequestMapping(value = "/check", method = {RequestMethod.GET, RequestMethod.HEAD})
+    ResponseEntity<Void> check(
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) final String authorization);
 }
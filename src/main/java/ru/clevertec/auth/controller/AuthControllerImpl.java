@@ -1,30 +1,53 @@
 package ru.clevertec.auth.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RestController;
 import ru.clevertec.auth.entity.dto.user.UserRequest;
 import ru.clevertec.auth.entity.dto.user.UserResponse;
 import ru.clevertec.auth.service.AuthService;
+import ru.clevertec.auth.service.IdempotencyService;
 import ru.clevertec.auth.service.UserViewService;
 import ru.clevertec.auth.entity.dto.auth.JwtRequest;
 import ru.clevertec.auth.entity.dto.auth.JwtResponse;
+import ru.clevertec.auth.entity.dto.auth.TokenCheck;
+import ru.clevertec.auth.service.props.JwtProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 @Validated
 @RestController
 @RequiredArgsConstructor
 public class AuthControllerImpl implements AuthController{
 
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_UUID_HEADER = "X-User-Uuid";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    private static final String BEARER = "Bearer ";
+
     private final AuthService authService;
     private final UserViewService userService;
+    private final IdempotencyService idempotencyService;
+    private final JwtProperties jwtProperties;
 
     public JwtResponse login(JwtRequest loginRequest) {
         return authService.login(loginRequest);
     }
 
-    public UserResponse register(UserRequest userDto) {
-        return userService.createWithRoleSubscriber(userDto);
+    public UserResponse register(String idempotencyKey, UserRequest userDto) {
+        if (idempotencyKey == null) {
+            return userService.createWithRoleSubscriber(userDto);
+        }
+        return idempotencyService.execute("auth.register:" + userDto.username(), idempotencyKey,
+                Arrays.asList(userDto.name(), userDto.username(), userDto.password(), userDto.passwordConfirmation()),
+                UserResponse.class, () -> userService.createWithRoleSubscriber(userDto));
     }
 
     public JwtResponse refresh(String refreshToken) {
@@ -36,4 +59,32 @@ public class AuthControllerImpl implements AuthController{
                 .status(200)
                 .body(authService.validate(token));
     }
+
+    public ResponseEntity<Void> check(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return unauthorized();
+        }
+        return authService.check(authorization.substring(BEARER.length()))
+                .map(this::authorized)
+                .orElseGet(this::unauthorized);
+    }
+
+    private ResponseEntity<Void> authorized(TokenCheck check) {
+        long untilExpiry = Duration.between(Instant.now(), check.expiresAt()).toSeconds();
+        long maxAge = Math.max(0, Math.min(untilExpiry, jwtProperties.getCheckMaxAge().toSeconds()));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .header(USER_ID_HEADER, String.valueOf(check.id()))
+                .header(USER_UUID_HEADER, String.valueOf(check.uuid()))
+                .header(USER_ROLES_HEADER, String.join(",", check.roles()))
+                .build();
+    }
+
+    private ResponseEntity<Void> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .cacheControl(CacheControl.noStore())
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"")
+                .build();
+    }
 }
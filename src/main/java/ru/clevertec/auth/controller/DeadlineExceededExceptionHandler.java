@@ -0,0 +1,34 @@
+package ru.clevertec.auth.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.clevertec.auth.deadline.DeadlineExceededException;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
+
+/**
+ * Translates passed request deadlines into 504 Gateway Timeout and counts them by the step they stopped.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DeadlineExceededExceptionHandler {
+
+    private final MeterRegistry meterRegistry;
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<IncorrectData> handle(DeadlineExceededException exception) {
+        meterRegistry.counter(AuthMetrics.DEADLINE_EXCEEDED, AuthMetrics.TAG_REASON, exception.getStep()).increment();
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(new IncorrectData(exception.getMessage(), HttpStatus.GATEWAY_TIMEOUT.toString()));
+    }
+}
@@ -0,0 +1,26 @@
+package ru.clevertec.auth.controller;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.clevertec.auth.exception.IdempotencyKeyException;
+import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
+
+/**
+ * Translates refused Idempotency-Keys into 400, 409 or 422 responses.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IdempotencyKeyExceptionHandler {
+
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<IncorrectData> handle(IdempotencyKeyException exception) {
+        return ResponseEntity.status(exception.getStatus())
+                .body(new IncorrectData(exception.getMessage(), exception.getStatus().toString()));
+    }
+}
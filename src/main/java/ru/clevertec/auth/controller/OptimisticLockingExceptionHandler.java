@@ -0,0 +1,34 @@
+package ru.clevertec.auth.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
+
+/**
+ * Translates optimistic locking failures into HTTP responses.
+ * A request that carried If-Match gets 412 Precondition Failed, any other lost update gets 409 Conflict.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticLockingExceptionHandler {
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<IncorrectData> handle(OptimisticLockingFailureException exception,
+                                                HttpServletRequest request) {
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null
+                ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status)
+                .body(new IncorrectData("User was modified by another request", status.toString()));
+    }
+}
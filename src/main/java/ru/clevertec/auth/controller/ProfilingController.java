@@ -0,0 +1,46 @@
+package ru.clevertec.auth.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
+
+import java.time.Duration;
+
+@RequestMapping("/admin/profiling")
+@Tag(name = "Profiling", description = "On-demand profiling of the service")
+public interface ProfilingController {
+
+    @Operation(
+            summary = "Record a JFR profile",
+            tags = {"Profiling"},
+            description = "Runs a bounded Java Flight Recorder recording with the auth-service events enabled "
+                    + "and returns the .jfr file once the recording is over.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "The recording"),
+                    @ApiResponse(responseCode = "403", description = "Not an administrator"),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Profiling is disabled",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "A recording is already running",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @GetMapping(value = "/jfr", produces = "application/octet-stream")
+    DeferredResult<ResponseEntity<StreamingResponseBody>> recordJfr(
+            @Parameter(description = "Recording time in ISO-8601 or Spring duration format, e.g. 30s")
+            @RequestParam(value = "duration", required = false) Duration duration);
+}
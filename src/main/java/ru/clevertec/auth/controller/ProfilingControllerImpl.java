@@ -0,0 +1,56 @@
+package ru.clevertec.auth.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.clevertec.auth.jfr.OnDemandRecording;
+import ru.clevertec.auth.service.ProfilingService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+@RestController
+@RequiredArgsConstructor
+public class ProfilingControllerImpl implements ProfilingController {
+
+    private final ProfilingService profilingService;
+
+    @Override
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> recordJfr(Duration duration) {
+        OnDemandRecording recording = profilingService.start(duration);
+        DeferredResult<ResponseEntity<StreamingResponseBody>> result =
+                new DeferredResult<>(recording.getTimeout().toMillis());
+        result.onTimeout(recording::close);
+        result.onError(error -> recording.close());
+        recording.stopped().whenComplete((stopped, error) -> {
+            if (error != null) {
+                recording.close();
+                result.setErrorResult(error);
+            } else if (!result.setResult(toResponse(stopped))) {
+                recording.close();
+            }
+        });
+        return result;
+    }
+
+    private static ResponseEntity<StreamingResponseBody> toResponse(OnDemandRecording recording) {
+        String filename = "auth-service-" + Instant.now().truncatedTo(ChronoUnit.SECONDS)
+                .toString().replace(':', '-') + ".jfr";
+        StreamingResponseBody body = outputStream -> {
+            try (recording) {
+                recording.transferTo(outputStream);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
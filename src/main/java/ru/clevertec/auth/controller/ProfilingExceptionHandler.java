@@ -0,0 +1,26 @@
+package ru.clevertec.auth.controller;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.clevertec.auth.exception.ProfilingException;
+import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
+
+/**
+ * Translates refused recordings into 404 or 409 responses.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProfilingExceptionHandler {
+
+    @ExceptionHandler(ProfilingException.class)
+    public ResponseEntity<IncorrectData> handle(ProfilingException exception) {
+        return ResponseEntity.status(exception.getStatus())
+                .body(new IncorrectData(exception.getMessage(), exception.getStatus().toString()));
+    }
+}
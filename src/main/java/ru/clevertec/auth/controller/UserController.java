@@ -1,12 +1,15 @@
 package ru.clevertec.auth.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.repository.query.Param;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -14,7 +17,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.WebRequest;
+import ru.clevertec.auth.entity.dto.user.UserPatchRequest;
 import ru.clevertec.auth.entity.dto.user.UserRequest;
 import ru.clevertec.auth.entity.dto.user.UserResponse;
 import ru.clevertec.auth.entity.dto.validation.OnCreate;
@@ -22,6 +28,8 @@ import ru.clevertec.auth.entity.dto.validation.OnUpdate;
 import ru.clevertec.auth.entity.user.Role;
 import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
 
+import java.security.Principal;
+
 @Validated
 @RequestMapping("/users")
 @Tag(name = "Users service", description = "Operations related to users")
@@ -30,7 +38,7 @@ public interface UserController {
     @Operation(
             summary = "Update user by ID",
             tags = {"User"},
-            description = "User update. Returns the updated resource.")
+            description = "User update. Returns the updated resource with its new ETag.")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "200", description = "User successfully updated"),
@@ -42,18 +50,62 @@ public interface UserController {
                             responseCode = "404",
                             description = "User by ID not found",
                             content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "User was modified concurrently",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = "If-Match does not match the current version",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
                     @ApiResponse(
                             responseCode = "500",
                             description = "General application error",
                             content = @Content(schema = @Schema(implementation = IncorrectData.class)))
             })
     @PutMapping("/{id}")
-    UserResponse update(@PathVariable("id") Long id, @Validated(OnUpdate.class) @RequestBody UserRequest dto);
+    ResponseEntity<UserResponse> update(@PathVariable("id") Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @Validated(OnUpdate.class) @RequestBody UserRequest dto);
+
+    @Operation(
+            summary = "Partially update user by ID",
+            tags = {"User"},
+            description = "User partial update with a JSON Merge Patch document. Returns the updated resource with its new ETag.")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(responseCode = "200", description = "User successfully updated"),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid patch document or input parameter",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "User by ID not found",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "User was modified concurrently",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = "If-Match does not match the current version",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "General application error",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class)))
+            })
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    ResponseEntity<UserResponse> patch(@PathVariable("id") Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @Validated(OnUpdate.class) @RequestBody UserPatchRequest patch);
 
     @Operation(
             summary = "Create new user",
             tags = {"User"},
-            description = "User creation. Returns the location of a new resource.")
+            description = "User creation. Returns the location of a new resource. A retry carrying the same "
+                    + "Idempotency-Key gets the response of the first request instead of creating the user again.")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "201", description = "User successfully created"),
@@ -61,21 +113,33 @@ public interface UserController {
                             responseCode = "400",
                             description = "Invalid request body",
                             content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "A request with the same Idempotency-Key is still in progress",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "Idempotency-Key already used with a different request",
+                            content = @Content(schema = @Schema(implementation = IncorrectData.class))),
                     @ApiResponse(
                             responseCode = "500",
                             description = "General application error",
                             content = @Content(schema = @Schema(implementation = IncorrectData.class)))
             })
     @PostMapping
-    UserResponse create(@Validated(OnCreate.class) @RequestBody UserRequest dto, @Param("role") String role);
+    UserResponse create(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                        @Validated(OnCreate.class) @RequestBody UserRequest dto,
+                        @Param("role") String role,
+                        @Parameter(hidden = true) Principal principal);
 
     @Operation(
             summary = "Get user by ID",
             tags = {"User"},
-            description = "Get user. Returns a user by ID.")
+            description = "Get user. Returns a user by ID with its version as a strong ETag.")
     @ApiResponses(
             value = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved user"),
+                    @ApiResponse(responseCode = "304", description = "User has not changed since the given ETag"),
                     @ApiResponse(
                             responseCode = "404",
                             description = "User by ID not found",
@@ -90,7 +154,7 @@ public interface UserController {
                             content = @Content(schema = @Schema(implementation = IncorrectData.class)))
             })
     @GetMapping("/{id}")
-    UserResponse getById(@PathVariable Long id);
+    ResponseEntity<UserResponse> getById(@PathVariable Long id, @Parameter(hidden = true) WebRequest request);
 
     @Operation(
             summary = "Move user to archive by ID",
@@ -1,13 +1,22 @@
 package ru.clevertec.auth.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import ru.clevertec.auth.entity.dto.user.UserPatchRequest;
 import ru.clevertec.auth.entity.dto.user.UserRequest;
 import ru.clevertec.auth.entity.dto.user.UserResponse;
-import ru.clevertec.auth.entity.user.Role;
+import ru.clevertec.auth.entity.dto.user.VersionedUserResponse;
+import ru.clevertec.auth.service.IdempotencyService;
 import ru.clevertec.auth.service.UserViewService;
 
+import java.security.Principal;
+import java.util.Arrays;
+
 
 @Validated
 @RestController
@@ -15,22 +24,38 @@ import ru.clevertec.auth.service.UserViewService;
 public class UserControllerImpl implements UserController{
 
     private final UserViewService userService;
+    private final IdempotencyService idempotencyService;
 
 
     @Override
-    public UserResponse update(Long id, UserRequest dto) {
-        return userService.updateUser(id, dto);
+    public ResponseEntity<UserResponse> update(Long id, String ifMatch, UserRequest dto) {
+        return withEtag(userService.updateUser(id, dto, parseVersion(ifMatch)));
     }
 
     @Override
-    public UserResponse create(UserRequest dto,String role) {
-        return userService.create(dto,role);
+    public ResponseEntity<UserResponse> patch(Long id, String ifMatch, UserPatchRequest patch) {
+        return withEtag(userService.patchUser(id, patch, parseVersion(ifMatch)));
+    }
+
+    @Override
+    public UserResponse create(String idempotencyKey, UserRequest dto, String role, Principal principal) {
+        if (idempotencyKey == null) {
+            return userService.create(dto, role);
+        }
+        String scope = "users.create:" + (principal != null ? principal.getName() : "anonymous");
+        return idempotencyService.execute(scope, idempotencyKey,
+                Arrays.asList(dto.name(), dto.username(), dto.password(), dto.passwordConfirmation(), role),
+                UserResponse.class, () -> userService.create(dto, role));
     }
 
 
     @Override
-    public UserResponse getById(Long id) {
-        return userService.getUserDtoById(id);
+    public ResponseEntity<UserResponse> getById(Long id, WebRequest request) {
+        VersionedUserResponse user = userService.getVersionedUser(id);
+        if (request.checkNotModified(toEtag(user.version()))) {
+            return null;
+        }
+        return withEtag(user);
     }
 
 
@@ -38,4 +63,35 @@ public class UserControllerImpl implements UserController{
     public void archivedById(Long id) {
         userService.archive(id);
     }
+
+    private static ResponseEntity<UserResponse> withEtag(VersionedUserResponse user) {
+        return ResponseEntity.ok()
+                .eTag(toEtag(user.version()))
+                .body(user.toResponse());
+    }
+
+    private static String toEtag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Extracts the expected user version from an If-Match header.
+     *
+     * @param ifMatch the If-Match header value, may be null.
+     * @return the expected version, or null if the header is absent or matches any version.
+     * @throws ResponseStatusException with 400 status if the header does not hold a single user ETag.
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("\"") && tag.endsWith("\"") && tag.length() > 2) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must contain a single strong ETag of the user");
+    }
 }
@@ -0,0 +1,30 @@
+package ru.clevertec.auth.controller;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
+import ru.clevertec.exceptionhandlerstarter.entity.IncorrectData;
+
+/**
+ * Translates unavailable user lookups into 503 Service Unavailable, so clients retry
+ * instead of treating the request as failed for good.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UserLookupUnavailableExceptionHandler {
+
+    @ExceptionHandler(UserLookupUnavailableException.class)
+    public ResponseEntity<IncorrectData> handle(UserLookupUnavailableException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(new IncorrectData(exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.toString()));
+    }
+}
@@ -0,0 +1,83 @@
+package ru.clevertec.auth.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.clevertec.auth.event.UserChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the read-only work of a writer on the primary for a short window after its user write has been
+ * committed, so that a client reading back what it has just written does not hit a replica that has not
+ * replayed the change yet. Reads of every other client keep going to the replicas.
+ * <p>
+ * A writer is identified by the authenticated principal of the request and by the explicit session token
+ * the client sends in the session header, so that anonymous clients, e.g. one logging in right after
+ * registering, stay pinned only when they present the same token. The client address is never used:
+ * every client behind one gateway shares it. Work without either of them has no writer and is never pinned.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> pinnedWriters;
+    private final String sessionHeader;
+
+    public ReadYourWritesTracker(Duration stickyWindow, long maximumWriters, String sessionHeader) {
+        this.sessionHeader = sessionHeader;
+        this.pinnedWriters = Caffeine.newBuilder()
+                .maximumSize(maximumWriters)
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+
+    /**
+     * Pins the reads of the current writer to the primary once its user change has been committed.
+     *
+     * @param event the committed user change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        currentWriters().forEach(writer -> pinnedWriters.put(writer, Boolean.TRUE));
+    }
+
+    /**
+     * Checks whether the reads of the current client must be served by the primary.
+     *
+     * @return true while the sticky window after the client's last write is open.
+     */
+    public boolean isPinnedToPrimary() {
+        for (String writer : currentWriters()) {
+            if (pinnedWriters.getIfPresent(writer) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> currentWriters() {
+        List<String> writers = new ArrayList<>(2);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null) {
+            writers.add("principal:" + authentication.getName());
+        }
+        if (StringUtils.hasText(sessionHeader)
+                && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            String session = attributes.getRequest().getHeader(sessionHeader);
+            if (StringUtils.hasText(session)) {
+                writers.add("session:" + session);
+            }
+        }
+        return writers;
+    }
+}
@@ -0,0 +1,128 @@
+package ru.clevertec.auth.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holder of the replica connection pools and their health state.
+ * A background task periodically checks that every replica is reachable, is still in recovery
+ * and has replayed the primary's WAL within the configured lag; replicas failing any of these
+ * checks are excluded from read routing until they recover.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+public class ReplicaDataSources {
+
+    private static final String HEALTH_QUERY = """
+            select pg_is_in_recovery(),
+                   case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   end""";
+
+    private final Map<String, HikariDataSource> replicas;
+    private final Duration maxLag;
+    private final Duration healthCheckInterval;
+    private final Set<String> available = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaDataSources(Map<String, HikariDataSource> replicas, Duration maxLag, Duration healthCheckInterval) {
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    /**
+     * Runs the first health check synchronously and schedules the following ones.
+     */
+    @PostConstruct
+    public void start() {
+        checkHealth();
+        executor.scheduleWithFixedDelay(this::checkHealth,
+                healthCheckInterval.toMillis(), healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the health monitor and closes the replica pools.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        replicas.values().forEach(HikariDataSource::close);
+    }
+
+    /**
+     * Returns the replica names in configuration order.
+     *
+     * @return the list of replica names.
+     */
+    public List<String> names() {
+        return List.copyOf(replicas.keySet());
+    }
+
+    /**
+     * Returns the replica pools keyed by replica name.
+     *
+     * @return the replica pools.
+     */
+    public Map<String, HikariDataSource> dataSources() {
+        return replicas;
+    }
+
+    /**
+     * Checks whether the replica passed its last health check.
+     *
+     * @param name the replica name.
+     * @return true if the replica may serve reads, false otherwise.
+     */
+    public boolean isAvailable(String name) {
+        return available.contains(name);
+    }
+
+    /**
+     * Probes every replica and updates the set of available ones.
+     */
+    void checkHealth() {
+        replicas.forEach((name, dataSource) -> {
+            boolean healthy = probe(name, dataSource);
+            boolean changed = healthy ? available.add(name) : available.remove(name);
+            if (changed) {
+                log.info("Replica {} is now {}", name, healthy ? "available" : "unavailable");
+            }
+        });
+    }
+
+    private boolean probe(String name, HikariDataSource dataSource) {
+        try {
+            return Boolean.TRUE.equals(new JdbcTemplate(dataSource).query(HEALTH_QUERY, rs -> {
+                rs.next();
+                boolean inRecovery = rs.getBoolean(1);
+                long lagMillis = rs.getLong(2);
+                if (lagMillis > maxLag.toMillis()) {
+                    log.warn("Replica {} lags behind the primary by {} ms", name, lagMillis);
+                }
+                return inRecovery && lagMillis <= maxLag.toMillis();
+            }));
+        } catch (Exception e) {
+            log.warn("Replica {} health check failed: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
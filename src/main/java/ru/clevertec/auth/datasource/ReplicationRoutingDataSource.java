@@ -0,0 +1,61 @@
+package ru.clevertec.auth.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routing data source that sends read-only transactions to the replicas in round-robin order
+ * and everything else to the primary.
+ * It has to be wrapped into a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so that the target is chosen when the first statement runs, after the transaction's
+ * read-only flag has been bound to the thread.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaDataSources replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final boolean fallbackToPrimary;
+    private final List<String> replicaNames;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(ReplicaDataSources replicas,
+                                        ReadYourWritesTracker readYourWritesTracker,
+                                        boolean fallbackToPrimary) {
+        this.replicas = replicas;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.fallbackToPrimary = fallbackToPrimary;
+        this.replicaNames = replicas.names();
+    }
+
+    /**
+     * Chooses the target for the current connection request.
+     * Falls back to the primary when no replica is available, unless the fallback is disabled,
+     * in which case the next replica in turn is used regardless of its health.
+     *
+     * @return the lookup key of the target data source.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaNames.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || readYourWritesTracker.isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(counter.getAndIncrement(), replicaNames.size());
+        for (int i = 0; i < replicaNames.size(); i++) {
+            String name = replicaNames.get((start + i) % replicaNames.size());
+            if (replicas.isAvailable(name)) {
+                return name;
+            }
+        }
+        return fallbackToPrimary ? PRIMARY : replicaNames.get(start);
+    }
+}
@@ -0,0 +1,129 @@
+package ru.clevertec.auth.deadline;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Point in time by which the current request has to be answered.
+ * The deadline of a request is bound to the thread serving it, so the expensive steps deep in the
+ * call stack can check it or bound their own waiting by the remaining budget.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a deadline the given budget from now.
+     *
+     * @param budget the time the request may take; zero or negative for an expired deadline.
+     * @return the deadline.
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Returns the deadline bound to the current thread.
+     *
+     * @return the current deadline, or an empty Optional if the request has none.
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Checks the deadline of the current thread, if any, before an expensive step.
+     *
+     * @param step the step about to start, for the error.
+     * @throws DeadlineExceededException if the deadline has passed.
+     */
+    public static void check(String step) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException(step);
+        }
+    }
+
+    /**
+     * Binds this deadline to the current thread until the returned scope is closed.
+     *
+     * @return the scope restoring the previous deadline of the thread on close.
+     */
+    public Scope bind() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the earlier of this deadline and the given one.
+     *
+     * @param other the other deadline.
+     * @return the earlier deadline.
+     */
+    public Deadline min(Deadline other) {
+        return deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Waits for a future for at most the remaining budget. The future itself is left running,
+     * as other callers may share it.
+     *
+     * @param future the future to wait for.
+     * @param step   the step the future belongs to, for the error.
+     * @param <T>    the type of the result.
+     * @return the result of the future.
+     * @throws CompletionException       if the future failed.
+     * @throws DeadlineExceededException if the deadline passed first.
+     */
+    public <T> T await(CompletableFuture<T> future, String step) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(step);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException(step);
+        }
+    }
+
+    /**
+     * Binding of a deadline to a thread.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,21 @@
+package ru.clevertec.auth.deadline;
+
+/**
+ * Thrown when the deadline of a request passes before one of its steps could start or finish.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String step;
+
+    public DeadlineExceededException(String step) {
+        super("Request deadline exceeded before " + step);
+        this.step = step;
+    }
+
+    public String getStep() {
+        return step;
+    }
+}
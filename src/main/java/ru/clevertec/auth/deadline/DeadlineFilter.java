@@ -0,0 +1,120 @@
+package ru.clevertec.auth.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.service.props.DeadlineProperties;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Filter binding the deadline of a request to the thread serving it.
+ * The deadline is the earliest of the one sent by the client and the configured budget of the endpoint.
+ * Clients send either a relative timeout in the gRPC format ({@code 500m}, {@code 2S}) or in plain
+ * milliseconds, or an absolute deadline in epoch milliseconds. Requests whose deadline has already
+ * passed are answered with 504 without doing any work.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+    private static final Pattern TIMEOUT = Pattern.compile("(\\d{1,8})([HMSmun]?)");
+
+    private final DeadlineProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Deadline deadline = deadlineOf(request);
+        if (deadline == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (deadline.isExpired()) {
+            meterRegistry.counter(AuthMetrics.DEADLINE_EXCEEDED, AuthMetrics.TAG_REASON, "arrival").increment();
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            return;
+        }
+        try (Deadline.Scope ignored = deadline.bind()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private Deadline deadlineOf(HttpServletRequest request) {
+        Deadline deadline = null;
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        for (DeadlineProperties.Budget budget : properties.getBudgets()) {
+            if (budget.getPaths().stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path))) {
+                deadline = Deadline.after(budget.getBudget());
+                break;
+            }
+        }
+        Deadline requested = requestedDeadline(request);
+        if (requested == null) {
+            return deadline;
+        }
+        return deadline == null ? requested : deadline.min(requested);
+    }
+
+    private Deadline requestedDeadline(HttpServletRequest request) {
+        String timeout = request.getHeader(properties.getTimeoutHeader());
+        if (timeout != null) {
+            Matcher matcher = TIMEOUT.matcher(timeout.trim());
+            if (matcher.matches()) {
+                return Deadline.after(Duration.of(Long.parseLong(matcher.group(1)), unitOf(matcher.group(2))));
+            }
+            log.debug("Ignoring malformed {} header: {}", properties.getTimeoutHeader(), timeout);
+        }
+        String deadline = request.getHeader(properties.getDeadlineHeader());
+        if (deadline != null) {
+            try {
+                return Deadline.after(Duration.ofMillis(Long.parseLong(deadline.trim()) - System.currentTimeMillis()));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed {} header: {}", properties.getDeadlineHeader(), deadline);
+            }
+        }
+        return null;
+    }
+
+    private static ChronoUnit unitOf(String unit) {
+        return switch (unit) {
+            case "H" -> ChronoUnit.HOURS;
+            case "M" -> ChronoUnit.MINUTES;
+            case "S" -> ChronoUnit.SECONDS;
+            case "u" -> ChronoUnit.MICROS;
+            case "n" -> ChronoUnit.NANOS;
+            default -> ChronoUnit.MILLIS;
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package ru.clevertec.auth.deadline;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.postgresql.jdbc.PgStatement;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Query listener applying the remaining budget of the current request as the statement timeout,
+ * so the database cancels a query the client has stopped waiting for. Queries are not started
+ * at all once the deadline has passed. The PostgreSQL driver takes the timeout in milliseconds;
+ * other drivers get it rounded up to whole seconds.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+public class DeadlineQueryTimeoutListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Deadline deadline = Deadline.current().orElse(null);
+        if (deadline == null) {
+            return;
+        }
+        Duration remaining = deadline.remaining();
+        if (remaining.isNegative() || remaining.isZero()) {
+            throw new DeadlineExceededException("query");
+        }
+        try {
+            applyTimeout(execInfo.getStatement(), remaining);
+        } catch (SQLException e) {
+            log.debug("Could not set the statement timeout: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    private static void applyTimeout(Statement statement, Duration remaining) throws SQLException {
+        if (statement.isWrapperFor(PgStatement.class)) {
+            statement.unwrap(PgStatement.class).setQueryTimeoutMs(Math.max(1, remaining.toMillis()));
+        } else {
+            statement.setQueryTimeout((int) Math.max(1, (remaining.toMillis() + 999) / 1000));
+        }
+    }
+}
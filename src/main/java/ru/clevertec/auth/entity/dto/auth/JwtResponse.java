@@ -14,4 +14,5 @@ public class JwtResponse {
     private Set<String> roles;
     private String accessToken;
     private String refreshToken;
+    private boolean degraded;
 }
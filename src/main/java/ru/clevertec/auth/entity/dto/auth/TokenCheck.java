@@ -0,0 +1,23 @@
+package ru.clevertec.auth.entity.dto.auth;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Outcome of a successful access token check.
+ *
+ * @param id        the ID of the token's user.
+ * @param uuid      the UUID of the token's user.
+ * @param username  the username of the token's user.
+ * @param roles     the names of the user's roles.
+ * @param expiresAt the expiry of the token.
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record TokenCheck(Long id,
+                         UUID uuid,
+                         String username,
+                         Set<String> roles,
+                         Instant expiresAt) {
+}
@@ -0,0 +1,26 @@
+package ru.clevertec.auth.entity.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Pattern;
+import org.hibernate.validator.constraints.Length;
+import ru.clevertec.auth.entity.dto.validation.OnUpdate;
+
+/**
+ * JSON Merge Patch document for a user.
+ * Members that are absent or null leave the corresponding attribute unchanged,
+ * since none of the user attributes can be removed. Members that are present must not be blank.
+ */
+public record UserPatchRequest(
+
+        @Pattern(regexp = "(?s).*\\S.*", message = "Name must be not blank.", groups = OnUpdate.class)
+        @Length(max = 255, message = "Name length must be smaller than 255 symbols", groups = OnUpdate.class)
+        String name,
+
+        @Pattern(regexp = "(?s).*\\S.*", message = "Username must be not blank.", groups = OnUpdate.class)
+        @Length(max = 255, message = "Username length must be smaller than 255 symbols", groups = OnUpdate.class)
+        String username,
+
+        @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+        @Pattern(regexp = "(?s).*\\S.*", message = "Password must be not blank.", groups = OnUpdate.class)
+        String password) {
+}
@@ -0,0 +1,26 @@
+package ru.clevertec.auth.entity.dto.user;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compact view of a user as published to downstream services.
+ *
+ * @param id       the ID of the user.
+ * @param uuid     the UUID of the user.
+ * @param name     the name of the user.
+ * @param username the username of the user.
+ * @param roles    the names of the user's roles.
+ * @param archived whether the user is archived.
+ * @param version  the version of the user; consumers can ignore snapshots older than the one they hold.
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record UserSnapshot(Long id,
+                           UUID uuid,
+                           String name,
+                           String username,
+                           Set<String> roles,
+                           boolean archived,
+                           Long version) {
+}
@@ -0,0 +1,22 @@
+package ru.clevertec.auth.entity.dto.user;
+
+/**
+ * A user projection together with its optimistic-locking version, which is the user's entity tag.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record VersionedUserResponse(
+
+        Long id,
+
+        String name,
+
+        String username,
+
+        Long version) {
+
+    public UserResponse toResponse() {
+        return new UserResponse(id, name, username);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.clevertec.auth.entity.user;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class for the denormalized role set stored in the {@code users.role_mask} column.
+ * Every known role is encoded as one bit, in the order of {@link #ROLES}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public final class RoleMask {
+
+    private static final List<String> ROLES = List.of(Role.ROLE_ADMIN, Role.ROLE_SUBSCRIBER, Role.ROLE_JOURNALIST);
+
+    private RoleMask() {
+    }
+
+    /**
+     * Encodes a set of roles into a bitmask.
+     *
+     * @param roles the roles to encode.
+     * @return the bitmask, or null if any of the roles has no assigned bit.
+     */
+    public static Short of(Collection<Role> roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            int index = ROLES.indexOf(role.getName());
+            if (index < 0) {
+                return null;
+            }
+            mask |= 1 << index;
+        }
+        return (short) mask;
+    }
+
+    /**
+     * Decodes a bitmask into role names.
+     *
+     * @param mask the bitmask to decode.
+     * @return the set of role names.
+     */
+    public static Set<String> toNames(short mask) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < ROLES.size(); i++) {
+            if ((mask & (1 << i)) != 0) {
+                names.add(ROLES.get(i));
+            }
+        }
+        return names;
+    }
+}
@@ -11,19 +11,25 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Entity
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@DynamicUpdate
 @Table(name = "users")
 public class User {
 
@@ -49,7 +55,9 @@ public class User {
     @Column(name = "is_archive", nullable = false)
     private boolean isArchived;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_role",
             joinColumns = @JoinColumn(
@@ -59,4 +67,26 @@ public class User {
                     name = "role_id",
                     referencedColumnName = "id"))
     private Set<Role> roles;
+
+    @Column(name = "role_mask")
+    private Short roleMask;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Returns the names of the user's roles, read from the denormalized role mask when it is set
+     * and from the role collection otherwise.
+     *
+     * @return the set of role names.
+     */
+    public Set<String> getRoleNames() {
+        if (roleMask != null) {
+            return RoleMask.toNames(roleMask);
+        }
+        return roles.stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet());
+    }
 }
@@ -0,0 +1,20 @@
+package ru.clevertec.auth.event;
+
+/**
+ * Application event published by the user service whenever a user record is written.
+ * Listeners that must observe committed data only should subscribe with a
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.
+ *
+ * @param userId the ID of the changed user.
+ * @param type   the kind of change.
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record UserChangedEvent(Long userId, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        ARCHIVED
+    }
+}
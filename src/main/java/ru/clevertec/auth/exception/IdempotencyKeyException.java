@@ -0,0 +1,37 @@
+package ru.clevertec.auth.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a request cannot be run or replayed for its Idempotency-Key:
+ * the key is malformed, still in progress, or was used with a different request.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Getter
+public class IdempotencyKeyException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private IdempotencyKeyException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public static IdempotencyKeyException malformed(int maxLength) {
+        return new IdempotencyKeyException(HttpStatus.BAD_REQUEST,
+                "Idempotency-Key must be 1 to " + maxLength + " characters long");
+    }
+
+    public static IdempotencyKeyException inProgress() {
+        return new IdempotencyKeyException(HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still in progress");
+    }
+
+    public static IdempotencyKeyException reused() {
+        return new IdempotencyKeyException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key has already been used with a different request");
+    }
+}
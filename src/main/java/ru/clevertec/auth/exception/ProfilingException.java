@@ -0,0 +1,29 @@
+package ru.clevertec.auth.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when an on-demand recording cannot be started: profiling is disabled or a recording is running.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Getter
+public class ProfilingException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private ProfilingException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public static ProfilingException disabled() {
+        return new ProfilingException(HttpStatus.NOT_FOUND, "Profiling is disabled");
+    }
+
+    public static ProfilingException alreadyRunning() {
+        return new ProfilingException(HttpStatus.CONFLICT, "A recording is already running");
+    }
+}
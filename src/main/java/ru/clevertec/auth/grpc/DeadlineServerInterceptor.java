@@ -0,0 +1,52 @@
+package ru.clevertec.auth.grpc;
+
+import io.grpc.Context;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import ru.clevertec.auth.deadline.Deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds the deadline of a gRPC call to the threads handling its messages,
+ * so gRPC calls are bounded the same way as REST requests with a deadline header.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@GrpcGlobalServerInterceptor
+public class DeadlineServerInterceptor implements ServerInterceptor {
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        io.grpc.Deadline callDeadline = Context.current().getDeadline();
+        ServerCall.Listener<ReqT> listener = next.startCall(call, headers);
+        if (callDeadline == null) {
+            return listener;
+        }
+        Deadline deadline = Deadline.after(Duration.ofNanos(callDeadline.timeRemaining(TimeUnit.NANOSECONDS)));
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+
+            @Override
+            public void onMessage(ReqT message) {
+                try (Deadline.Scope ignored = deadline.bind()) {
+                    super.onMessage(message);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                try (Deadline.Scope ignored = deadline.bind()) {
+                    super.onHalfClose();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package ru.clevertec.auth.grpc;
+
+import io.grpc.Status;
+import net.devh.boot.grpc.server.advice.GrpcAdvice;
+import net.devh.boot.grpc.server.advice.GrpcExceptionHandler;
+import ru.clevertec.auth.deadline.DeadlineExceededException;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
+import ru.clevertec.exceptionhandlerstarter.exception.AccessDeniedException;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
+
+/**
+ * Translates the service exceptions of unary gRPC calls into gRPC statuses,
+ * the way the exception handler starter translates them into HTTP statuses for REST.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@GrpcAdvice
+public class GrpcExceptionAdvice {
+
+    @GrpcExceptionHandler(AccessDeniedException.class)
+    public Status handleAccessDenied(AccessDeniedException e) {
+        return Status.UNAUTHENTICATED.withDescription(e.getMessage());
+    }
+
+    @GrpcExceptionHandler(EntityNotFoundException.class)
+    public Status handleNotFound(EntityNotFoundException e) {
+        return Status.NOT_FOUND.withDescription(e.getMessage());
+    }
+
+    @GrpcExceptionHandler(UserLookupUnavailableException.class)
+    public Status handleUnavailable(UserLookupUnavailableException e) {
+        return Status.UNAVAILABLE.withDescription(e.getMessage());
+    }
+
+    @GrpcExceptionHandler(DeadlineExceededException.class)
+    public Status handleDeadlineExceeded(DeadlineExceededException e) {
+        return Status.DEADLINE_EXCEEDED.withDescription(e.getMessage());
+    }
+}
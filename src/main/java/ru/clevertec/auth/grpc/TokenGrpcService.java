@@ -0,0 +1,148 @@
+package ru.clevertec.auth.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+import ru.clevertec.auth.deadline.DeadlineExceededException;
+import ru.clevertec.auth.grpc.proto.BatchValidateRequest;
+import ru.clevertec.auth.grpc.proto.BatchValidateResponse;
+import ru.clevertec.auth.grpc.proto.JwtResponse;
+import ru.clevertec.auth.grpc.proto.RefreshRequest;
+import ru.clevertec.auth.grpc.proto.TokenServiceGrpc;
+import ru.clevertec.auth.grpc.proto.ValidateRequest;
+import ru.clevertec.auth.grpc.proto.ValidateResult;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
+import ru.clevertec.auth.service.AuthService;
+import ru.clevertec.auth.service.props.TokenGrpcProperties;
+import ru.clevertec.exceptionhandlerstarter.exception.AccessDeniedException;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * gRPC endpoint of the token operations, served on the gRPC port next to the REST API.
+ * Every call delegates to the same {@link AuthService} as the REST controller.
+ * Errors of unary calls are translated by {@link GrpcExceptionAdvice}; batched and streamed
+ * validations report them per token instead, with the same status code, so one bad token
+ * or one failed user lookup does not end the call.
+ * A batch larger than {@code grpc.token-service.max-batch-size} is refused as a whole.
+ * A validation stream is flow controlled: the next token is only read while the client keeps
+ * up with the results, so a slow reader cannot make the server buffer an unbounded backlog.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+@GrpcService
+@RequiredArgsConstructor
+public class TokenGrpcService extends TokenServiceGrpc.TokenServiceImplBase {
+
+    private final AuthService authService;
+    private final TokenGrpcProperties properties;
+
+    @Override
+    public void validate(ValidateRequest request, StreamObserver<JwtResponse> responseObserver) {
+        responseObserver.onNext(toProto(authService.validate(request.getToken())));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void batchValidate(BatchValidateRequest request, StreamObserver<BatchValidateResponse> responseObserver) {
+        if (request.getRequestsCount() > properties.getMaxBatchSize()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("A batch may contain at most " + properties.getMaxBatchSize() + " tokens")
+                    .asRuntimeException());
+            return;
+        }
+        BatchValidateResponse.Builder response = BatchValidateResponse.newBuilder();
+        request.getRequestsList().forEach(validateRequest -> response.addResults(validateQuietly(validateRequest)));
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<ValidateRequest> validateStream(StreamObserver<ValidateResult> responseObserver) {
+        ServerCallStreamObserver<ValidateResult> serverObserver =
+                (ServerCallStreamObserver<ValidateResult>) responseObserver;
+        serverObserver.disableAutoRequest();
+        AtomicBoolean wasReady = new AtomicBoolean();
+        serverObserver.setOnReadyHandler(() -> {
+            if (serverObserver.isReady() && wasReady.compareAndSet(false, true)) {
+                serverObserver.request(1);
+            }
+        });
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(ValidateRequest request) {
+                serverObserver.onNext(validateQuietly(request));
+                if (serverObserver.isReady()) {
+                    serverObserver.request(1);
+                } else {
+                    wasReady.set(false);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("Validation stream cancelled by the client: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                serverObserver.onCompleted();
+            }
+        };
+    }
+
+    @Override
+    public void refresh(RefreshRequest request, StreamObserver<JwtResponse> responseObserver) {
+        responseObserver.onNext(toProto(authService.refresh(request.getRefreshToken())));
+        responseObserver.onCompleted();
+    }
+
+    private ValidateResult validateQuietly(ValidateRequest request) {
+        ValidateResult.Builder result = ValidateResult.newBuilder()
+                .setCorrelationId(request.getCorrelationId());
+        try {
+            return result.setValid(true)
+                    .setResponse(toProto(authService.validate(request.getToken())))
+                    .build();
+        } catch (AccessDeniedException e) {
+            return failed(result, Status.Code.UNAUTHENTICATED, e);
+        } catch (EntityNotFoundException e) {
+            return failed(result, Status.Code.NOT_FOUND, e);
+        } catch (UserLookupUnavailableException e) {
+            return failed(result, Status.Code.UNAVAILABLE, e);
+        } catch (DeadlineExceededException e) {
+            return failed(result, Status.Code.DEADLINE_EXCEEDED, e);
+        }
+    }
+
+    private static ValidateResult failed(ValidateResult.Builder result, Status.Code status, RuntimeException e) {
+        return result.setValid(false)
+                .setStatus(status.name())
+                .setError(e.getMessage() != null ? e.getMessage() : "")
+                .build();
+    }
+
+    private static JwtResponse toProto(ru.clevertec.auth.entity.dto.auth.JwtResponse response) {
+        JwtResponse.Builder builder = JwtResponse.newBuilder()
+                .setId(response.getId())
+                .setUuid(String.valueOf(response.getUuid()))
+                .setUsername(response.getUsername())
+                .setDegraded(response.isDegraded());
+        if (response.getRoles() != null) {
+            builder.addAllRoles(response.getRoles());
+        }
+        if (response.getAccessToken() != null) {
+            builder.setAccessToken(response.getAccessToken());
+        }
+        if (response.getRefreshToken() != null) {
+            builder.setRefreshToken(response.getRefreshToken());
+        }
+        return builder.build();
+    }
+}
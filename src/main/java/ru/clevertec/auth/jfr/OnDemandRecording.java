@@ -0,0 +1,103 @@
+package ru.clevertec.auth.jfr;
+
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A running on-demand JFR recording. It is stopped after its duration and has to be collected within
+ * the collect timeout; a recording that is not collected by then is discarded. Closing the recording
+ * discards its data and frees the recording slot, and may be done more than once.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public final class OnDemandRecording implements AutoCloseable {
+
+    private final Recording recording;
+    private final Duration duration;
+    private final Duration collectTimeout;
+    private final Runnable onClose;
+    private final CompletableFuture<OnDemandRecording> stopped = new CompletableFuture<>();
+    private final AtomicBoolean collected = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public OnDemandRecording(Recording recording, Duration duration, Duration collectTimeout, Runnable onClose) {
+        this.recording = recording;
+        this.duration = duration;
+        this.collectTimeout = collectTimeout;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Returns the time after which the recording is discarded unless it is being collected.
+     *
+     * @return the recording duration plus the collect timeout.
+     */
+    public Duration getTimeout() {
+        return duration.plus(collectTimeout);
+    }
+
+    /**
+     * Returns a future completed once the recording has stopped and can be collected.
+     *
+     * @return the future of the stopped recording.
+     */
+    public CompletableFuture<OnDemandRecording> stopped() {
+        return stopped;
+    }
+
+    /**
+     * Stops the recording and completes {@link #stopped()}.
+     */
+    public void stop() {
+        try {
+            recording.stop();
+            stopped.complete(this);
+        } catch (RuntimeException e) {
+            stopped.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Writes the recorded data in the .jfr format.
+     *
+     * @param outputStream the stream to write to.
+     * @throws IOException if the data cannot be read or written.
+     */
+    public void transferTo(OutputStream outputStream) throws IOException {
+        collected.set(true);
+        try (InputStream data = recording.getStream(null, null)) {
+            if (data != null) {
+                data.transferTo(outputStream);
+            }
+        }
+    }
+
+    /**
+     * Discards the recording unless it is being collected.
+     */
+    public void closeIfNotCollected() {
+        if (!collected.get()) {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            recording.close();
+        } finally {
+            stopped.cancel(false);
+            onClose.run();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.clevertec.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * JFR event recorded for every password hashing or check.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Setter
+@Name(PasswordHashEvent.NAME)
+@Label("Password Hashing")
+@Category({"Auth Service", "Password"})
+@Description("BCrypt hashing of a new password or check of a presented one")
+public class PasswordHashEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "ru.clevertec.auth.PasswordHash";
+
+    @Label("Operation")
+    @Description("'encode' or 'matches'")
+    private String operation;
+
+    @Label("Cost")
+    @Description("BCrypt log rounds of the hash, -1 if it is not a BCrypt hash")
+    private int cost;
+
+    /**
+     * Reads the cost of a BCrypt hash such as {@code $2a$10$...}.
+     *
+     * @param hash the hash.
+     * @return the log rounds, or -1 if the hash is not a BCrypt hash.
+     */
+    public static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') {
+            return -1;
+        }
+        char tens = hash.charAt(4);
+        char ones = hash.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
@@ -0,0 +1,27 @@
+package ru.clevertec.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * JFR event recorded for every signed JWT.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Setter
+@Name(TokenMintEvent.NAME)
+@Label("Token Minting")
+@Category({"Auth Service", "JWT"})
+@Description("Building and signing of a JWT")
+public class TokenMintEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "ru.clevertec.auth.TokenMint";
+
+    @Label("Type")
+    @Description("'access' or 'refresh'")
+    private String type;
+}
@@ -0,0 +1,27 @@
+package ru.clevertec.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * JFR event recorded for every JWT signature and expiry check.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Setter
+@Name(TokenVerifyEvent.NAME)
+@Label("Token Verification")
+@Category({"Auth Service", "JWT"})
+@Description("Parsing and verification of a JWT")
+public class TokenVerifyEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "ru.clevertec.auth.TokenVerify";
+
+    @Label("Outcome")
+    @Description("'valid' or the reason the token was rejected")
+    private String outcome;
+}
@@ -0,0 +1,35 @@
+package ru.clevertec.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * JFR event recorded for every user lookup made while handling tokens and logins.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Setter
+@Name(UserLookupEvent.NAME)
+@Label("User Lookup")
+@Category({"Auth Service", "Users"})
+@Description("Lookup of a user by ID or username")
+public class UserLookupEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "ru.clevertec.auth.UserLookup";
+
+    public static final String CACHE = "cache";
+    public static final String NEGATIVE_CACHE = "negative-cache";
+    public static final String DB = "db";
+
+    @Label("Key")
+    @Description("'id' or 'username'")
+    private String key;
+
+    @Label("Source")
+    @Description("Where the user was resolved from: 'cache', 'negative-cache' or 'db'")
+    private String source;
+}
@@ -0,0 +1,90 @@
+package ru.clevertec.auth.limit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Servlet filter admitting the limited paths through a {@link ConcurrencyLimiter}.
+ * Each request is classified into the first lane whose path patterns match it, or the last lane otherwise.
+ * Requests over the limit get an immediate 503 with Retry-After instead of queueing for a thread
+ * or a connection. Requests failing with an exception free their slot without affecting the limit.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final ConcurrencyLimiter limiter;
+    private final List<String> paths;
+    private final Map<Lane, List<String>> lanePaths;
+
+    /**
+     * Creates the filter.
+     *
+     * @param limiter   the limiter.
+     * @param paths     the path patterns of the limited requests.
+     * @param lanePaths the path patterns classifying requests into the limiter's lanes.
+     */
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter, List<String> paths, Map<Lane, List<String>> lanePaths) {
+        this.limiter = limiter;
+        this.paths = List.copyOf(paths);
+        this.lanePaths = Map.copyOf(lanePaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        return paths.stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Optional<ConcurrencyLimiter.Permit> permit = limiter.tryAcquire(classify(request));
+        if (permit.isEmpty()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed) {
+                permit.get().release();
+            } else {
+                permit.get().ignore();
+            }
+        }
+    }
+
+    private Lane classify(HttpServletRequest request) {
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        List<Lane> lanes = limiter.getLanes();
+        for (Lane lane : lanes) {
+            if (lanePaths.getOrDefault(lane, List.of()).stream()
+                    .anyMatch(pattern -> PATH_MATCHER.match(pattern, path))) {
+                return lane;
+            }
+        }
+        return lanes.get(lanes.size() - 1);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.clevertec.auth.limit;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control over the requests in flight, bounded by a {@link GradientLimit} and partitioned into
+ * {@link Lane}s in priority order. A request is admitted if its lane is within its guaranteed share, or if
+ * there is room left once the unused guarantees of all higher-priority lanes are set aside. As load grows,
+ * the lowest-priority lanes therefore run out of room first, while the highest ones keep their share.
+ * A request either gets a {@link Permit} right away or is rejected; nothing waits in a queue.
+ * Every lane keeps its own {@link GradientLimit.Baseline}, so slow lanes such as password checks do not
+ * shrink the shared limit merely for being slower than the fast ones.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class ConcurrencyLimiter {
+
+    private final GradientLimit limit;
+    private final List<Lane> lanes;
+    private final Map<Lane, GradientLimit.Baseline> baselines = new IdentityHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Creates a limiter.
+     *
+     * @param limit the adaptive limit.
+     * @param lanes the lanes, highest priority first.
+     */
+    public ConcurrencyLimiter(GradientLimit limit, List<Lane> lanes) {
+        if (lanes.isEmpty()) {
+            throw new IllegalArgumentException("At least one lane is required");
+        }
+        this.limit = limit;
+        this.lanes = List.copyOf(lanes);
+        this.lanes.forEach(lane -> baselines.put(lane, limit.newBaseline()));
+    }
+
+    /**
+     * Admits a request of the given lane if the limit allows it.
+     *
+     * @param lane the lane of the request, one of {@link #getLanes()}.
+     * @return the permit of the admitted request, or an empty Optional if it is rejected.
+     */
+    public Optional<Permit> tryAcquire(Lane lane) {
+        synchronized (this) {
+            int currentLimit = limit.getLimit();
+            int total = inFlight.get();
+            if (total < currentLimit
+                    && (lane.getInFlight() < lane.guaranteed(currentLimit)
+                    || total < currentLimit - reservedAbove(lane, currentLimit))) {
+                int inFlightAtStart = inFlight.incrementAndGet();
+                lane.inFlightCounter().incrementAndGet();
+                return Optional.of(new Permit(lane, inFlightAtStart, System.nanoTime()));
+            }
+        }
+        lane.reject();
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the lanes, highest priority first; the last one takes unclassified requests.
+     *
+     * @return the lanes.
+     */
+    public List<Lane> getLanes() {
+        return lanes;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private int reservedAbove(Lane lane, int currentLimit) {
+        int reserved = 0;
+        for (Lane higher : lanes) {
+            if (higher == lane) {
+                break;
+            }
+            reserved += Math.max(0, higher.guaranteed(currentLimit) - higher.getInFlight());
+        }
+        return reserved;
+    }
+
+    /**
+     * Slot of an admitted request; exactly one of {@link #release()} and {@link #ignore()} has to be called.
+     */
+    public final class Permit {
+
+        private final Lane lane;
+        private final int inFlightAtStart;
+        private final long startNanos;
+
+        private Permit(Lane lane, int inFlightAtStart, long startNanos) {
+            this.lane = lane;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Frees the slot and feeds the request's latency into the limit, against the baseline of its lane.
+         */
+        public void release() {
+            free();
+            limit.onSample(System.nanoTime() - startNanos, baselines.get(lane), inFlightAtStart);
+        }
+
+        /**
+         * Frees the slot without sampling, for requests whose latency says nothing about capacity.
+         */
+        public void ignore() {
+            free();
+        }
+
+        private void free() {
+            lane.inFlightCounter().decrementAndGet();
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.clevertec.auth.limit;
+
+/**
+ * Concurrency limit adjusted from the gradient between the long-term and the latest round-trip time,
+ * after the gradient2 algorithm of Netflix concurrency-limits.
+ * While latency stays close to its long-term average the limit grows by a queue allowance of
+ * sqrt(limit); once latency climbs above it by more than the tolerance, the limit shrinks
+ * proportionally, down to half per sample. Samples taken while less than half of the limit
+ * was in use say nothing about the capacity and are ignored.
+ * <p>
+ * Requests of different kinds can have latencies orders of magnitude apart, so each kind should keep its
+ * own {@link Baseline}: a sample is only compared to the long-term round-trip time of its own kind, and a
+ * burst of slow requests does not read as congestion against a baseline set by fast ones.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class GradientLimit {
+
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final Baseline baseline;
+
+    private volatile double estimatedLimit;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit,
+                         double smoothing, double rttTolerance, int longWindow) {
+        this.estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindow = longWindow;
+        this.baseline = newBaseline();
+    }
+
+    /**
+     * Creates a long-term round-trip time baseline for one kind of requests.
+     *
+     * @return a new Baseline with the long window of this limit.
+     */
+    public Baseline newBaseline() {
+        return new Baseline(longWindow);
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the number of requests allowed in flight.
+     */
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * Feeds the round-trip time of a completed request into the limit, against the baseline of this limit.
+     *
+     * @param rttNanos the round-trip time of the request.
+     * @param inFlight the number of requests in flight when the request started.
+     */
+    public void onSample(long rttNanos, int inFlight) {
+        onSample(rttNanos, baseline, inFlight);
+    }
+
+    /**
+     * Feeds the round-trip time of a completed request into the limit, against the baseline of its kind.
+     *
+     * @param rttNanos the round-trip time of the request.
+     * @param baseline the baseline of the kind of the request, created by {@link #newBaseline()}.
+     * @param inFlight the number of requests in flight when the request started.
+     */
+    public void onSample(long rttNanos, Baseline baseline, int inFlight) {
+        double longRtt = baseline.update(rttNanos);
+        adjust(rttNanos, longRtt, inFlight);
+    }
+
+    private synchronized void adjust(double shortRtt, double longRtt, int inFlight) {
+        if (inFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * Long-term round-trip time of one kind of requests: a plain average over the first samples,
+     * then an exponential moving average over the long window.
+     */
+    public static final class Baseline {
+
+        private final int longWindow;
+        private double longRtt;
+        private long samples;
+
+        private Baseline(int longWindow) {
+            this.longWindow = longWindow;
+        }
+
+        private synchronized double update(double shortRtt) {
+            samples++;
+            if (samples <= WARMUP_SAMPLES) {
+                longRtt += (shortRtt - longRtt) / samples;
+            } else {
+                longRtt += (shortRtt - longRtt) / longWindow;
+            }
+            if (longRtt / shortRtt > 2) {
+                // Latency dropped well below the long-term average; let the average catch up faster.
+                longRtt *= 0.95;
+            }
+            return longRtt;
+        }
+    }
+}
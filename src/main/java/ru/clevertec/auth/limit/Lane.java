@@ -0,0 +1,56 @@
+package ru.clevertec.auth.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request class with its own permits within the shared concurrency limit.
+ * A lane is guaranteed its share of the limit; beyond that it may borrow capacity that neither
+ * the other lanes' traffic nor the unused guarantees of higher-priority lanes hold.
+ * Latencies of a lane are judged against the lane's own long-term round-trip time.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class Lane {
+
+    private final String name;
+    private final double share;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public Lane(String name, double share) {
+        this.name = name;
+        this.share = share;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of requests this lane is guaranteed under the given total limit.
+     *
+     * @param limit the total limit.
+     * @return the guaranteed permits, at least one.
+     */
+    public int guaranteed(int limit) {
+        return Math.max(1, (int) Math.ceil(limit * share));
+    }
+
+    AtomicInteger inFlightCounter() {
+        return inFlight;
+    }
+
+    void reject() {
+        rejected.increment();
+    }
+}
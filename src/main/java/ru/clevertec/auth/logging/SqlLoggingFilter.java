@@ -0,0 +1,77 @@
+package ru.clevertec.auth.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.clevertec.auth.service.props.SqlLoggingProperties;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filter marking a request for SQL statement logging.
+ * A request is marked when it carries the debug header or falls into the configured sample,
+ * in both cases only while the per-second budget of marked requests is not exhausted.
+ * The mark is an MDC entry picked up by {@link SqlLoggingTurboFilter}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlLoggingFilter extends OncePerRequestFilter {
+
+    private final SqlLoggingProperties properties;
+    private final AtomicLong window = new AtomicLong();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!isRequested(request) || !tryAcquire()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        MDC.put(SqlLoggingTurboFilter.MDC_KEY, "true");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(SqlLoggingTurboFilter.MDC_KEY);
+        }
+    }
+
+    private boolean isRequested(HttpServletRequest request) {
+        if (properties.isHeaderEnabled() && Boolean.parseBoolean(request.getHeader(properties.getHeader()))) {
+            return true;
+        }
+        double sampleRate = properties.getSampleRate();
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Takes one slot of the current second. The window packs the epoch second
+     * into the high bits and the number of marked requests into the low 20 bits.
+     */
+    private boolean tryAcquire() {
+        long second = System.currentTimeMillis() / 1000;
+        while (true) {
+            long current = window.get();
+            long count = current >>> 20 == second ? current & 0xFFFFF : 0;
+            if (count >= properties.getMaxRequestsPerSecond()) {
+                return false;
+            }
+            if (window.compareAndSet(current, second << 20 | count + 1)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.clevertec.auth.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Logback turbo filter enabling SQL statement logging for the requests marked by {@link SqlLoggingFilter}.
+ * The SQL loggers stay at their configured level; only events of a marked request bypass it,
+ * so unmarked requests pay a single MDC lookup per SQL log call.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class SqlLoggingTurboFilter extends TurboFilter {
+
+    public static final String MDC_KEY = "sqlLogging";
+    private static final String SQL_LOGGER = "org.hibernate.SQL";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!SQL_LOGGER.equals(logger.getName()) || !level.isGreaterOrEqual(Level.DEBUG)) {
+            return FilterReply.NEUTRAL;
+        }
+        return MDC.get(MDC_KEY) != null ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
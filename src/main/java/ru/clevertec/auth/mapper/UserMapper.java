@@ -1,7 +1,10 @@
 package ru.clevertec.auth.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.clevertec.auth.entity.dto.user.UserResponse;
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
+import ru.clevertec.auth.entity.dto.user.VersionedUserResponse;
 import ru.clevertec.auth.entity.user.User;
 
 
@@ -22,4 +25,22 @@ public interface UserMapper {
      * @return the converted UserResponse DTO.
      */
     UserResponse toDto(User user);
+
+    /**
+     * Converts a User entity to a VersionedUserResponse carrying its optimistic-locking version.
+     *
+     * @param user the User entity to convert.
+     * @return the converted VersionedUserResponse.
+     */
+    VersionedUserResponse toVersionedDto(User user);
+
+    /**
+     * Converts a User entity to a UserSnapshot. The roles are taken from the denormalized role mask when it is set.
+     *
+     * @param user the User entity to convert.
+     * @return the converted UserSnapshot.
+     */
+    @Mapping(target = "roles", source = "roleNames")
+    @Mapping(target = "archived", source = "archived")
+    UserSnapshot toSnapshot(User user);
 }
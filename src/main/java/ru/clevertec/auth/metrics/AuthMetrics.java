@@ -0,0 +1,41 @@
+package ru.clevertec.auth.metrics;
+
+/**
+ * Names and tags of the application meters and observations.
+ * Every observation yields a timer and a tracing span of the same name. All of them share the
+ * {@code auth} prefix, so their histograms and SLO buckets are configured with
+ * {@code management.metrics.distribution.*.auth}.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public final class AuthMetrics {
+
+    public static final String AUTHENTICATE = "auth.authenticate";
+    public static final String PASSWORD_ENCODE = "auth.password.encode";
+    public static final String PASSWORD_MATCHES = "auth.password.matches";
+    public static final String JWT_SIGN = "auth.jwt.sign";
+    public static final String JWT_VERIFY = "auth.jwt.verify";
+    public static final String JWT_VALIDATION_FAILURES = "auth.jwt.validation.failures";
+    public static final String FILTER = "auth.filter.jwt";
+    public static final String FILTER_FAILURES = "auth.filter.jwt.failures";
+    public static final String LOAD_USER_DETAILS = "auth.user.details.load";
+    public static final String NEGATIVE_CACHE_SAVED_QUERIES = "auth.cache.negative.saved.queries";
+    public static final String CREDENTIAL_CACHE_SAVED_CHECKS = "auth.cache.credentials.saved.checks";
+    public static final String LOGIN_AUDIT_DROPPED = "auth.login.audit.dropped";
+    public static final String LIMITER_LIMIT = "auth.limiter.limit";
+    public static final String LIMITER_IN_FLIGHT = "auth.limiter.inflight";
+    public static final String LIMITER_LANE_IN_FLIGHT = "auth.limiter.lane.inflight";
+    public static final String LIMITER_REJECTED = "auth.limiter.rejected";
+    public static final String DEGRADED_RESPONSES = "auth.degraded.responses";
+    public static final String DEADLINE_EXCEEDED = "auth.deadline.exceeded";
+    public static final String IDEMPOTENT_REPLAYS = "auth.idempotency.replays";
+
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_REASON = "reason";
+    public static final String TAG_TYPE = "type";
+    public static final String TAG_LANE = "lane";
+
+    private AuthMetrics() {
+    }
+}
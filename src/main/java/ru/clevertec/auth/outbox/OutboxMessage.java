@@ -0,0 +1,23 @@
+package ru.clevertec.auth.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * A user change event stored in the outbox.
+ *
+ * @param id        the ID of the outbox row, increasing in commit order within one instance.
+ * @param userId    the ID of the changed user.
+ * @param type      the kind of change.
+ * @param payload   the JSON snapshot of the user after the change.
+ * @param createdAt the moment the change was written.
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public record OutboxMessage(long id,
+                            Long userId,
+                            String type,
+                            @JsonRawValue String payload,
+                            Instant createdAt) {
+}
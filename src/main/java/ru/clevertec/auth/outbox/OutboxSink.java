@@ -0,0 +1,21 @@
+package ru.clevertec.auth.outbox;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay publishes user change events to.
+ * A batch counts as delivered only if this method returns normally; on an exception
+ * the whole batch stays in the outbox and is published again later.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public interface OutboxSink {
+
+    /**
+     * Publishes a batch of events in outbox order.
+     *
+     * @param messages the events to publish.
+     */
+    void publish(List<OutboxMessage> messages);
+}
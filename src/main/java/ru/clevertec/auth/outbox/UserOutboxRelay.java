@@ -0,0 +1,134 @@
+package ru.clevertec.auth.outbox;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.clevertec.auth.repository.UserOutboxRepository;
+import ru.clevertec.auth.service.props.OutboxProperties;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the outbox to the configured sink and prunes delivered events.
+ * Each batch is claimed for {@code outbox.relay.lease} in a short transaction, published outside
+ * of any transaction and marked published in a second short transaction, so a slow sink holds
+ * neither a connection nor row locks. A failed publication releases the claim for the next run;
+ * a relay dying mid-batch leaves it to be claimed again once the lease expires. Delivery is at least once;
+ * consumers should discard snapshots with a version lower than the one they already hold.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class UserOutboxRelay {
+
+    private final UserOutboxRepository userOutboxRepository;
+    private final OutboxSink outboxSink;
+    private final OutboxProperties.Relay properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserOutboxRelay(UserOutboxRepository userOutboxRepository,
+                           OutboxSink outboxSink,
+                           OutboxProperties properties,
+                           PlatformTransactionManager transactionManager) {
+        this.userOutboxRepository = userOutboxRepository;
+        this.outboxSink = outboxSink;
+        this.properties = properties.getRelay();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Schedules the pruning task, and the relay task if the relay is enabled.
+     * Pruning always runs, so events published before the relay was disabled are still deleted.
+     */
+    @PostConstruct
+    public void start() {
+        long pruneInterval = properties.getPruneInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> runSafely(this::prune, "prune"),
+                pruneInterval, pruneInterval, TimeUnit.MILLISECONDS);
+        if (properties.isEnabled()) {
+            long pollInterval = properties.getPollInterval().toMillis();
+            executor.scheduleWithFixedDelay(() -> runSafely(this::relay, "relay"),
+                    pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the relay.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Publishes unpublished events batch by batch until the outbox is drained.
+     *
+     * @return the number of published events.
+     */
+    public int relay() {
+        int total = 0;
+        int published;
+        do {
+            published = relayBatch();
+            total += published;
+        } while (published == properties.getBatchSize());
+        return total;
+    }
+
+    /**
+     * Deletes events published longer ago than the retention period, chunk by chunk,
+     * so that no single statement holds locks on a large number of rows.
+     *
+     * @return the number of deleted events.
+     */
+    public int prune() {
+        Instant before = Instant.now().minus(properties.getRetention());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    userOutboxRepository.deletePublishedBefore(before, properties.getPruneChunkSize()));
+            total += deleted;
+        } while (deleted == properties.getPruneChunkSize());
+        return total;
+    }
+
+    private int relayBatch() {
+        List<OutboxMessage> batch = transactionTemplate.execute(status ->
+                userOutboxRepository.claimUnpublished(properties.getBatchSize(), properties.getLease()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OutboxMessage::id).toList();
+        try {
+            outboxSink.publish(batch);
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> userOutboxRepository.releaseClaim(ids));
+            throw e;
+        }
+        transactionTemplate.executeWithoutResult(status -> userOutboxRepository.markPublished(ids));
+        return batch.size();
+    }
+
+    private void runSafely(Runnable task, String name) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.warn("User outbox {} failed: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.clevertec.auth.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.event.UserChangedEvent;
+import ru.clevertec.auth.mapper.UserMapper;
+import ru.clevertec.auth.repository.UserOutboxRepository;
+import ru.clevertec.auth.repository.UserRepository;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
+
+/**
+ * Writes a snapshot of every changed user to the outbox in the transaction that changed it.
+ * If the outbox insert fails, the change itself is rolled back.
+ * Only active while the relay is enabled, since nothing else ever reads or prunes unpublished events.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "outbox.relay", name = "enabled", havingValue = "true")
+public class UserOutboxWriter {
+
+    private final UserRepository userRepository;
+    private final UserOutboxRepository userOutboxRepository;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Appends the change to the outbox right before the transaction commits.
+     * Pending changes are flushed first, so the snapshot carries the version that is about to be committed.
+     *
+     * @param event the user change.
+     */
+    @SneakyThrows
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        userRepository.flush();
+        User user = userRepository.findById(event.userId())
+                .orElseThrow(() -> EntityNotFoundException.of(User.class, event.userId()));
+        userOutboxRepository.save(user.getId(), event.type().name(),
+                objectMapper.writeValueAsString(userMapper.toSnapshot(user)));
+    }
+}
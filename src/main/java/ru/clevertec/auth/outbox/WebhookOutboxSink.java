@@ -0,0 +1,31 @@
+package ru.clevertec.auth.outbox;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+/**
+ * Sink posting each batch of events as a JSON array to an HTTP webhook.
+ * Any non-2xx response fails the batch, so it is retried on the next relay run.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final RestClient restClient;
+
+    public WebhookOutboxSink(RestClient restClient) {
+        this.restClient = restClient;
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(messages)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,124 @@
+package ru.clevertec.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository of the idempotency keys and the responses stored for them.
+ * A key is claimed before its request runs and completed with the response afterwards;
+ * every statement runs on its own, outside the transaction of the request.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private static final String CLAIM = """
+            insert into idempotency_keys (scope, idempotency_key, fingerprint, expires_at)
+            values (?, ?, ?, ?)
+            on conflict (scope, idempotency_key) do update
+            set fingerprint = excluded.fingerprint,
+                response = null,
+                claimed_at = now(),
+                expires_at = excluded.expires_at
+            where idempotency_keys.expires_at <= now()
+               or (idempotency_keys.response is null and idempotency_keys.claimed_at < ?)""";
+
+    private static final String FIND = """
+            select fingerprint, response
+            from idempotency_keys
+            where scope = ? and idempotency_key = ? and expires_at > now()""";
+
+    private static final String COMPLETE = """
+            update idempotency_keys set response = cast(? as jsonb)
+            where scope = ? and idempotency_key = ?""";
+
+    private static final String RELEASE = """
+            delete from idempotency_keys
+            where scope = ? and idempotency_key = ? and response is null""";
+
+    private static final String DELETE_EXPIRED = """
+            delete from idempotency_keys
+            where ctid in (select ctid from idempotency_keys where expires_at <= ? limit ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claims a key for a request about to run. A key can be claimed if it is unknown, expired,
+     * or claimed by a request that has not completed since {@code staleBefore}.
+     *
+     * @param scope       the endpoint and caller the key belongs to.
+     * @param key         the idempotency key.
+     * @param fingerprint the fingerprint of the request.
+     * @param expiresAt   the moment the stored response expires.
+     * @param staleBefore the moment before which an uncompleted claim is considered abandoned.
+     * @return true if the key has been claimed, false if another request holds or has completed it.
+     */
+    public boolean claim(String scope, String key, String fingerprint, Instant expiresAt, Instant staleBefore) {
+        return jdbcTemplate.update(CLAIM, scope, key, fingerprint,
+                Timestamp.from(expiresAt), Timestamp.from(staleBefore)) == 1;
+    }
+
+    /**
+     * Finds the unexpired record of a key.
+     *
+     * @param scope the endpoint and caller the key belongs to.
+     * @param key   the idempotency key.
+     * @return the record, whose response is null while the request is in progress, or an empty Optional.
+     */
+    public Optional<StoredKey> find(String scope, String key) {
+        return jdbcTemplate.query(FIND, (rs, rowNum) -> new StoredKey(
+                        rs.getString("fingerprint"),
+                        rs.getString("response")), scope, key)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Stores the response of a completed request.
+     *
+     * @param scope    the endpoint and caller the key belongs to.
+     * @param key      the idempotency key.
+     * @param response the JSON response.
+     */
+    public void complete(String scope, String key, String response) {
+        jdbcTemplate.update(COMPLETE, response, scope, key);
+    }
+
+    /**
+     * Releases the claim of a failed request, so a retry runs it again.
+     *
+     * @param scope the endpoint and caller the key belongs to.
+     * @param key   the idempotency key.
+     */
+    public void release(String scope, String key) {
+        jdbcTemplate.update(RELEASE, scope, key);
+    }
+
+    /**
+     * Deletes up to {@code limit} keys expired before the given moment.
+     *
+     * @param before the moment before which expired keys are deleted.
+     * @param limit  the maximum number of keys to delete.
+     * @return the number of deleted keys.
+     */
+    public int deleteExpiredBefore(Instant before, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(before), limit);
+    }
+
+    /**
+     * Stored state of an idempotency key.
+     *
+     * @param fingerprint the fingerprint of the request that claimed the key.
+     * @param response    the JSON response, or null while the request is in progress.
+     */
+    public record StoredKey(String fingerprint, String response) {
+    }
+}
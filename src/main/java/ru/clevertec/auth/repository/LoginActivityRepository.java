@@ -0,0 +1,63 @@
+package ru.clevertec.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.auth.audit.LoginActivity;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository writing the login audit trail and the last login time of users.
+ * Writes are done with JDBC batches, bypassing the persistence context.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoginActivityRepository {
+
+    private static final String INSERT_AUDIT = """
+            insert into login_audit (user_id, username, event_type, success, occurred_at)
+            values (?, ?, ?, ?, ?)""";
+
+    private static final String UPSERT_LAST_LOGIN = """
+            insert into user_last_login (user_id, last_login_at)
+            values (?, ?)
+            on conflict (user_id) do update
+            set last_login_at = greatest(user_last_login.last_login_at, excluded.last_login_at)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes a batch of audit events and the coalesced last login times in one transaction.
+     *
+     * @param activities  the audit events to insert.
+     * @param lastLogins  the latest successful login per user ID.
+     */
+    @Transactional
+    public void saveAll(List<LoginActivity> activities, Map<Long, Instant> lastLogins) {
+        jdbcTemplate.batchUpdate(INSERT_AUDIT, activities, activities.size(), (ps, activity) -> {
+            if (activity.userId() == null) {
+                ps.setNull(1, Types.BIGINT);
+            } else {
+                ps.setLong(1, activity.userId());
+            }
+            ps.setString(2, activity.username());
+            ps.setString(3, activity.type().name());
+            ps.setBoolean(4, activity.success());
+            ps.setTimestamp(5, Timestamp.from(activity.occurredAt()));
+        });
+        List<Map.Entry<Long, Instant>> entries = List.copyOf(lastLogins.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_LAST_LOGIN, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setTimestamp(2, Timestamp.from(entry.getValue()));
+        });
+    }
+}
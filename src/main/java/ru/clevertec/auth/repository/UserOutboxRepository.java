@@ -0,0 +1,116 @@
+package ru.clevertec.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.clevertec.auth.outbox.OutboxMessage;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Repository of the user change outbox.
+ * All methods join the caller's transaction, so an event is written atomically with the change it describes.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserOutboxRepository {
+
+    private static final String INSERT = """
+            insert into user_outbox (user_id, event_type, payload)
+            values (?, ?, cast(? as jsonb))""";
+
+    private static final String CLAIM_UNPUBLISHED = """
+            update user_outbox set claimed_until = now() + ? * interval '1 millisecond'
+            where id in (select id
+                         from user_outbox
+                         where published_at is null
+                           and (claimed_until is null or claimed_until < now())
+                         order by id
+                         limit ?
+                         for update skip locked)
+            returning id, user_id, event_type, payload, created_at""";
+
+    private static final String RELEASE_CLAIM = """
+            update user_outbox set claimed_until = null where id = any(?) and published_at is null""";
+
+    private static final String MARK_PUBLISHED = """
+            update user_outbox set published_at = now(), claimed_until = null where id = any(?)""";
+
+    private static final String DELETE_PUBLISHED = """
+            delete from user_outbox
+            where id in (select id from user_outbox where published_at < ? order by id limit ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends an event to the outbox.
+     *
+     * @param userId  the ID of the changed user.
+     * @param type    the kind of change.
+     * @param payload the JSON snapshot of the user.
+     */
+    public void save(Long userId, String type, String payload) {
+        jdbcTemplate.update(INSERT, userId, type, payload);
+    }
+
+    /**
+     * Claims and returns the oldest unpublished events for the duration of the lease. Events claimed by
+     * another relay are skipped until their lease expires, so several instances can relay concurrently
+     * without publishing the same event twice, and the claim does not have to hold a row lock
+     * while the events are being published.
+     *
+     * @param limit the maximum number of events to claim.
+     * @param lease how long the events stay claimed.
+     * @return the claimed events in outbox order.
+     */
+    public List<OutboxMessage> claimUnpublished(int limit, Duration lease) {
+        List<OutboxMessage> claimed = jdbcTemplate.query(CLAIM_UNPUBLISHED, (rs, rowNum) -> new OutboxMessage(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toInstant()), lease.toMillis(), limit);
+        return claimed.stream()
+                .sorted(Comparator.comparingLong(OutboxMessage::id))
+                .toList();
+    }
+
+    /**
+     * Releases the claim on events that could not be published, so the next run retries them
+     * without waiting for the lease to expire.
+     *
+     * @param ids the IDs of the claimed events.
+     */
+    public void releaseClaim(List<Long> ids) {
+        jdbcTemplate.update(RELEASE_CLAIM, ps ->
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    /**
+     * Marks events as published.
+     *
+     * @param ids the IDs of the published events.
+     */
+    public void markPublished(List<Long> ids) {
+        jdbcTemplate.update(MARK_PUBLISHED, ps ->
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    /**
+     * Deletes up to {@code limit} events published before the given moment.
+     *
+     * @param before the moment before which published events are deleted.
+     * @param limit  the maximum number of events to delete.
+     * @return the number of deleted events.
+     */
+    public int deletePublishedBefore(Instant before, int limit) {
+        return jdbcTemplate.update(DELETE_PUBLISHED, Timestamp.from(before), limit);
+    }
+}
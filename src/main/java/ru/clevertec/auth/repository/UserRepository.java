@@ -2,7 +2,11 @@ package ru.clevertec.auth.repository;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.clevertec.auth.entity.dto.user.UserResponse;
+import ru.clevertec.auth.entity.dto.user.VersionedUserResponse;
 import ru.clevertec.auth.entity.user.User;
 
 import java.util.Optional;
@@ -20,6 +24,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
      * Finds a user by their username.
+     * The roles are not joined; they are available through the denormalized role mask.
      *
      * @param username the username of the user to find.
      * @return an Optional containing the found user or an empty Optional if not found.
@@ -27,10 +32,38 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     /**
-     * Finds a user by their UUID.
+     * Finds the id, name and username of a user without loading the entity.
      *
-     * @param uuid the UUID of the user to find.
-     * @return an Optional containing the found user or an empty Optional if not found.
+     * @param id the ID of the user to find.
+     * @return an Optional containing the user projection or an empty Optional if not found.
+     */
+    @Query("select new ru.clevertec.auth.entity.dto.user.UserResponse(u.id, u.name, u.username) "
+            + "from User u where u.id = :id")
+    Optional<UserResponse> findUserResponseById(@Param("id") Long id);
+
+    /**
+     * Finds a user projection together with its optimistic-locking version without loading the entity.
+     *
+     * @param id the ID of the user.
+     * @return an Optional containing the versioned projection or an empty Optional if not found.
+     */
+    @Query("select new ru.clevertec.auth.entity.dto.user.VersionedUserResponse(u.id, u.name, u.username, u.version) "
+            + "from User u where u.id = :id")
+    Optional<VersionedUserResponse> findVersionedUserResponseById(@Param("id") Long id);
+
+    /**
+     * Checks whether a user with the given username exists.
+     *
+     * @param username the username to check.
+     * @return true if such a user exists, false otherwise.
+     */
+    boolean existsByUsername(String username);
+
+    /**
+     * Checks whether a user with the given UUID exists.
+     *
+     * @param uuid the UUID to check.
+     * @return true if such a user exists, false otherwise.
      */
-    Optional<User> findByUuid(UUID uuid);
+    boolean existsByUuid(UUID uuid);
 }
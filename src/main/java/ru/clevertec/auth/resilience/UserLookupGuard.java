@@ -0,0 +1,169 @@
+package ru.clevertec.auth.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.persistence.PersistenceException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import ru.clevertec.auth.deadline.Deadline;
+import ru.clevertec.auth.deadline.DeadlineExceededException;
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
+import ru.clevertec.auth.service.props.UserLookupResilienceProperties;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Guards the database lookups of users with a bulkhead and a circuit breaker.
+ * The bulkhead fails fast once too many lookups are running, so calls blocked on an unreachable
+ * database cannot take up every request thread. The circuit breaker opens when lookups keep failing
+ * or getting slow, and then refuses them without touching the pool until the wait duration is over.
+ * Lookups that merely find no user, or run out of their request's deadline, are not failures.
+ * <p>
+ * The guard also keeps the last snapshot loaded for each user, so token validation can still be
+ * answered while lookups are unavailable. The snapshot of a user is dropped whenever the user changes,
+ * and archived users are never kept.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Component
+public class UserLookupGuard {
+
+    public static final String NAME = "userLookup";
+
+    private static final String QUERY_CANCELED = "57014";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Cache<Long, UserSnapshot> lastKnown;
+
+    public UserLookupGuard(UserLookupResilienceProperties properties) {
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallDuration())
+                .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+                .recordExceptions(DataAccessException.class, TransactionException.class, PersistenceException.class)
+                .ignoreExceptions(DeadlineExceededException.class)
+                .build());
+        this.bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(properties.getLastKnownMaximumSize())
+                .expireAfterWrite(properties.getLastKnownTtl())
+                .build();
+    }
+
+    /**
+     * Runs a user lookup through the bulkhead and the circuit breaker.
+     *
+     * @param lookup the lookup.
+     * @param <T>    the type of the result.
+     * @return the result of the lookup.
+     * @throws UserLookupUnavailableException if the lookup failed to reach the database or was refused.
+     * @throws DeadlineExceededException      if the database cancelled the query at the request's deadline.
+     */
+    public <T> T call(Supplier<T> lookup) {
+        try {
+            return Bulkhead.decorateSupplier(bulkhead,
+                    CircuitBreaker.decorateSupplier(circuitBreaker, () -> cancelledAtDeadline(lookup))).get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new UserLookupUnavailableException(e);
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            throw new UserLookupUnavailableException(e);
+        }
+    }
+
+    /**
+     * Runs the lookup, reporting a query the database cancelled while a request deadline is bound as
+     * {@link DeadlineExceededException}: the statement timeout was set from that deadline, so the
+     * cancellation says nothing about the health of the database and must not open the breaker.
+     */
+    private static <T> T cancelledAtDeadline(Supplier<T> lookup) {
+        try {
+            return lookup.get();
+        } catch (RuntimeException e) {
+            if (Deadline.current().isPresent() && isQueryCancellation(e)) {
+                throw new DeadlineExceededException("user lookup");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isQueryCancellation(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryTimeoutException || cause instanceof jakarta.persistence.QueryTimeoutException
+                    || cause instanceof SQLException sqlException
+                    && QUERY_CANCELED.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remembers a freshly loaded snapshot as the last known state of its user.
+     *
+     * @param snapshot the loaded snapshot.
+     */
+    public void remember(UserSnapshot snapshot) {
+        if (snapshot.archived()) {
+            lastKnown.invalidate(snapshot.id());
+        } else {
+            lastKnown.put(snapshot.id(), snapshot);
+        }
+    }
+
+    /**
+     * Returns the last snapshot loaded for a user.
+     *
+     * @param id the ID of the user.
+     * @return the last known snapshot, or an empty Optional if there is none.
+     */
+    public Optional<UserSnapshot> lastKnown(long id) {
+        return Optional.ofNullable(lastKnown.getIfPresent(id));
+    }
+
+    /**
+     * Drops the last known snapshot of a changed user, so an archived user is not served from it.
+     *
+     * @param id the ID of the user.
+     */
+    public void forget(long id) {
+        lastKnown.invalidate(id);
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakerRegistry() {
+        return circuitBreakerRegistry;
+    }
+
+    public BulkheadRegistry getBulkheadRegistry() {
+        return bulkheadRegistry;
+    }
+}
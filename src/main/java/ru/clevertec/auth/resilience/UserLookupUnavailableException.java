@@ -0,0 +1,15 @@
+package ru.clevertec.auth.resilience;
+
+/**
+ * Thrown when a user lookup cannot reach the database, either because the lookup failed
+ * or because the {@link UserLookupGuard} refused to start it.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class UserLookupUnavailableException extends RuntimeException {
+
+    public UserLookupUnavailableException(Throwable cause) {
+        super("User lookup is unavailable", cause);
+    }
+}
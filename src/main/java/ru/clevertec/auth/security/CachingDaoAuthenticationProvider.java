@@ -0,0 +1,46 @@
+package ru.clevertec.auth.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.clevertec.auth.cache.VerifiedCredentialCache;
+
+/**
+ * Authentication provider skipping the password check for credentials of machine clients
+ * that recently passed it, as remembered by the {@link VerifiedCredentialCache}.
+ * The user is still loaded on every login, so its current password hash is always compared.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    public CachingDaoAuthenticationProvider(UserDetailsService userDetailsService,
+                                            PasswordEncoder passwordEncoder,
+                                            VerifiedCredentialCache verifiedCredentialCache) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        this.verifiedCredentialCache = verifiedCredentialCache;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        if (!(userDetails instanceof JwtEntity user) || authentication.getCredentials() == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+        String password = authentication.getCredentials().toString();
+        if (verifiedCredentialCache.isVerified(user, password)) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        verifiedCredentialCache.remember(user, password);
+    }
+}
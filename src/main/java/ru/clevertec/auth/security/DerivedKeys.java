@@ -0,0 +1,38 @@
+package ru.clevertec.auth.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Derives purpose-specific HMAC keys from the server secret, so the key tokens are signed with
+ * is never used for anything else.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public final class DerivedKeys {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private DerivedKeys() {
+    }
+
+    /**
+     * Derives the key of a purpose as HMAC-SHA256(secret, purpose).
+     *
+     * @param secret  the server secret.
+     * @param purpose the name of the purpose, e.g. {@code "credential-cache"}.
+     * @return an HmacSHA256 key.
+     */
+    public static SecretKeySpec derive(String secret, String purpose) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return new SecretKeySpec(mac.doFinal(purpose.getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Key cannot be derived for " + purpose, e);
+        }
+    }
+}
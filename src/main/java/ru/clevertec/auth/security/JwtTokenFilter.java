@@ -1,14 +1,18 @@
 package ru.clevertec.auth.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.GenericFilterBean;
+import ru.clevertec.auth.metrics.AuthMetrics;
 
 
 /**
@@ -18,12 +22,23 @@ import org.springframework.web.filter.GenericFilterBean;
  * @author Sergey Leshkevich
  * @version 1.0
  */
-@AllArgsConstructor
+@Slf4j
 public class JwtTokenFilter extends GenericFilterBean {
     private final JwtTokenProvider jwtTokenProvider;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    public JwtTokenFilter(JwtTokenProvider jwtTokenProvider,
+                          MeterRegistry meterRegistry,
+                          ObservationRegistry observationRegistry) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
 
     /**
      * Processes an incoming request to authenticate the user based on a JWT token.
+     * Only the token handling is observed, not the rest of the filter chain.
      *
      * @param servletRequest  the request from the client.
      * @param servletResponse the response to the client.
@@ -36,20 +51,27 @@ public class JwtTokenFilter extends GenericFilterBean {
             final ServletResponse servletResponse,
             final FilterChain filterChain
     ) {
-        String bearerToken = ((HttpServletRequest) servletRequest)
-                .getHeader("Authorization");
+        Observation.createNotStarted(AuthMetrics.FILTER, observationRegistry)
+                .observe(() -> authenticate((HttpServletRequest) servletRequest));
+        filterChain.doFilter(servletRequest, servletResponse);
+    }
+
+    private void authenticate(HttpServletRequest request) {
+        String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
             bearerToken = bearerToken.substring(7);
         }
         try {
-            if (bearerToken != null && jwtTokenProvider.isValid(bearerToken)) {
+            if (bearerToken != null) {
                 Authentication authentication = jwtTokenProvider.getAuthentication(bearerToken);
                 if (authentication != null) {
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
-        } catch (Exception ignored) {
+        } catch (Exception e) {
+            meterRegistry.counter(AuthMetrics.FILTER_FAILURES,
+                    AuthMetrics.TAG_REASON, e.getClass().getSimpleName()).increment();
+            log.debug("Bearer token authentication failed: {}", e.getMessage());
         }
-        filterChain.doFilter(servletRequest, servletResponse);
     }
 }
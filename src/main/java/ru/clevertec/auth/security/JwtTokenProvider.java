@@ -1,30 +1,46 @@
 package ru.clevertec.auth.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
-import ru.clevertec.auth.entity.user.Role;
-import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.deadline.Deadline;
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
+import ru.clevertec.auth.jfr.TokenMintEvent;
+import ru.clevertec.auth.jfr.TokenVerifyEvent;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.resilience.UserLookupGuard;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
 import ru.clevertec.auth.service.UserInnerService;
 import ru.clevertec.auth.service.props.JwtProperties;
 import ru.clevertec.auth.entity.dto.auth.JwtResponse;
+import ru.clevertec.auth.entity.dto.auth.TokenCheck;
 import ru.clevertec.exceptionhandlerstarter.exception.AccessDeniedException;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
 
 import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Service class for JWT token management.
@@ -40,6 +56,9 @@ public class JwtTokenProvider {
     private final JwtProperties jwtProperties;
     private final UserDetailsService userDetailsService;
     private final UserInnerService userService;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final UserLookupGuard userLookupGuard;
     private SecretKey key;
 
     /**
@@ -55,34 +74,18 @@ public class JwtTokenProvider {
      *
      * @param userId   the ID of the user.
      * @param username the username of the user.
-     * @param roles    the roles of the user.
+     * @param roles    the role names of the user.
      * @return a signed JWT access token.
      */
-    public String createAccessToken(final Long userId, final String username, final Set<Role> roles) {
+    public String createAccessToken(final Long userId, final String username, final Set<String> roles) {
         Claims claims = Jwts.claims()
                 .subject(username)
                 .add("id", userId)
-                .add("roles", resolveRoles(roles))
+                .add("roles", List.copyOf(roles))
                 .build();
         Instant validity = Instant.now()
                 .plus(jwtProperties.getAccess(), ChronoUnit.MILLIS);
-        return Jwts.builder()
-                .claims(claims)
-                .expiration(Date.from(validity))
-                .signWith(key)
-                .compact();
-    }
-
-    /**
-     * Resolves user roles into a list of strings.
-     *
-     * @param roles the set of user roles.
-     * @return a list of role names.
-     */
-    private List<String> resolveRoles(final Set<Role> roles) {
-        return roles.stream()
-                .map(Role::getName)
-                .collect(Collectors.toList());
+        return sign("access", claims, validity);
     }
 
     /**
@@ -99,11 +102,7 @@ public class JwtTokenProvider {
                 .build();
         Instant validity = Instant.now()
                 .plus(jwtProperties.getRefresh(), ChronoUnit.MILLIS);
-        return Jwts.builder()
-                .claims(claims)
-                .expiration(Date.from(validity))
-                .signWith(key)
-                .compact();
+        return sign("refresh", claims, validity);
     }
 
     /**
@@ -114,110 +113,221 @@ public class JwtTokenProvider {
      */
     public JwtResponse refreshUserTokens(String refreshToken) {
         JwtResponse jwtResponse = new JwtResponse();
-        if (!isValid(refreshToken)) {
-            throw new AccessDeniedException("Token is not valid");
-        }
-        long userId = getId(refreshToken);
-        User user = userService.getById(userId);
-        jwtResponse.setUuid(user.getUuid());
+        Claims claims = verify(refreshToken)
+                .orElseThrow(() -> new AccessDeniedException("Token is not valid"));
+        long userId = claims.get("id", Long.class);
+        UserSnapshot user = userService.getSnapshotById(userId);
+        jwtResponse.setUuid(user.uuid());
         jwtResponse.setId(userId);
-        jwtResponse.setUsername(user.getUsername());
-        jwtResponse.setRoles(user.getRoles().stream().map(Role::getName).collect(Collectors.toSet()));
+        jwtResponse.setUsername(user.username());
+        jwtResponse.setRoles(user.roles());
         jwtResponse.setAccessToken(
-                createAccessToken(userId, user.getUsername(), user.getRoles())
+                createAccessToken(userId, user.username(), user.roles())
         );
         jwtResponse.setRefreshToken(
-                createRefreshToken(userId, user.getUsername())
+                createRefreshToken(userId, user.username())
         );
         return jwtResponse;
     }
 
     /**
      * Retrieves a JwtResponse containing the user's details and tokens based on the provided JWT token.
+     * If the user cannot be looked up, the response is built from the user's last known snapshot
+     * and marked as degraded.
      *
      * @param token the JWT token to parse.
      * @return a JwtResponse with user details and tokens.
+     * @throws UserLookupUnavailableException if the user cannot be looked up and has no last known snapshot.
      */
     public JwtResponse getJwtResponse(String token) {
         JwtResponse jwtResponse = new JwtResponse();
-        if (!isValid(token)) {
-            throw new AccessDeniedException("Token is not valid");
+        Claims claims = verify(token)
+                .orElseThrow(() -> new AccessDeniedException("Token is not valid"));
+        long userId = claims.get("id", Long.class);
+        UserSnapshot user;
+        try {
+            user = userService.getSnapshotById(userId);
+        } catch (UserLookupUnavailableException e) {
+            user = lastKnown(userId, "validate", e);
+            jwtResponse.setDegraded(true);
         }
-        long userId = getId(token);
-        User user = userService.getById(userId);
         jwtResponse.setId(userId);
-        jwtResponse.setUuid(user.getUuid());
-        jwtResponse.setUsername(user.getUsername());
-        jwtResponse.setRoles(user.getRoles().stream().map(Role::getName).collect(Collectors.toSet()));
+        jwtResponse.setUuid(user.uuid());
+        jwtResponse.setUsername(user.username());
+        jwtResponse.setRoles(user.roles());
         jwtResponse.setAccessToken(token);
         return jwtResponse;
     }
 
     /**
-     * Validates the provided JWT token.
+     * Checks the provided JWT token for an authorization subrequest of a gateway.
+     *
+     * @param token the JWT token to check.
+     * @return the user and expiry of the token, or an empty Optional if the token is not valid
+     * or its user no longer exists.
+     */
+    public Optional<TokenCheck> check(final String token) {
+        Optional<Claims> verified = verify(token);
+        if (verified.isEmpty()) {
+            return Optional.empty();
+        }
+        Claims claims = verified.get();
+        UserSnapshot user;
+        try {
+            user = userService.getSnapshotById(claims.get("id", Long.class));
+        } catch (EntityNotFoundException e) {
+            return Optional.empty();
+        }
+        return Optional.of(new TokenCheck(
+                user.id(), user.uuid(), user.username(), user.roles(), claims.getExpiration().toInstant()));
+    }
+
+    /**
+     * Validates the provided JWT token. The reason of every rejection is counted
+     * and every check is recorded as a {@link TokenVerifyEvent}.
      *
      * @param token the JWT token to validate.
      * @return true if the token is valid, false otherwise.
      */
     public boolean isValid(final String token) {
-       try {
-           return Jwts
-                   .parser()
-                   .verifyWith(key)
-                   .build()
-                   .parseSignedClaims(token)
-                   .getPayload()
-                   .getExpiration()
-                   .after(new Date());
-       }catch (Exception e){
-           return false;
-       }
+        return verify(token).isPresent();
     }
 
     /**
-     * Extracts the user ID from the provided JWT token.
+     * Parses the provided JWT token once and checks its signature and expiry. The reason of every
+     * rejection is counted and every check is recorded as a {@link TokenVerifyEvent}.
      *
-     * @param token the JWT token to parse.
-     * @return the user ID extracted from the token.
+     * @param token the JWT token to verify.
+     * @return the claims of the token, or an empty Optional if the token is not valid.
      */
-    private Long getId(final String token) {
-        Jws<Claims> claimsJws = Jwts
-                .parser()
-                .verifyWith(key)
-                .build().parseSignedClaims(token);
-        return claimsJws.getPayload()
-                .get("id", Long.class);
+    private Optional<Claims> verify(final String token) {
+        TokenVerifyEvent event = new TokenVerifyEvent();
+        event.begin();
+        Claims claims = null;
+        String rejection;
+        try {
+            claims = parse(token).getPayload();
+            rejection = rejectionReason(claims.getExpiration());
+        } catch (JwtException | IllegalArgumentException e) {
+            rejection = rejectionReason(e);
+        }
+        event.setOutcome(rejection == null ? "valid" : rejection);
+        event.commit();
+        if (rejection == null) {
+            return Optional.of(claims);
+        }
+        meterRegistry.counter(AuthMetrics.JWT_VALIDATION_FAILURES, AuthMetrics.TAG_REASON, rejection).increment();
+        return Optional.empty();
+    }
+
+    private static String rejectionReason(final Date expiration) {
+        if (expiration == null) {
+            return "no_expiration";
+        }
+        if (!expiration.after(new Date())) {
+            return "expired";
+        }
+        return null;
+    }
+
+    private static String rejectionReason(final RuntimeException exception) {
+        if (exception instanceof ExpiredJwtException) {
+            return "expired";
+        }
+        if (exception instanceof SignatureException) {
+            return "signature";
+        }
+        if (exception instanceof MalformedJwtException) {
+            return "malformed";
+        }
+        if (exception instanceof UnsupportedJwtException) {
+            return "unsupported";
+        }
+        if (exception instanceof IllegalArgumentException) {
+            return "empty";
+        }
+        return "invalid";
     }
 
     /**
-     * Extracts the username from the provided JWT token.
+     * Parses the provided JWT token and verifies its signature.
      *
      * @param token the JWT token to parse.
-     * @return the username extracted from the token.
+     * @return the verified claims.
      */
-    private String getUsername(final String token) {
-        return Jwts
+    private Jws<Claims> parse(final String token) {
+        return Observation.createNotStarted(AuthMetrics.JWT_VERIFY, observationRegistry).observe(() -> Jwts
                 .parser()
                 .verifyWith(key)
                 .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+                .parseSignedClaims(token));
+    }
+
+    private String sign(String type, Claims claims, Instant validity) {
+        Deadline.check("token signing");
+        TokenMintEvent event = new TokenMintEvent();
+        event.begin();
+        String token = Observation.createNotStarted(AuthMetrics.JWT_SIGN, observationRegistry)
+                .lowCardinalityKeyValue(AuthMetrics.TAG_TYPE, type)
+                .observe(() -> Jwts.builder()
+                        .claims(claims)
+                        .expiration(Date.from(validity))
+                        .signWith(key)
+                        .compact());
+        event.setType(type);
+        event.commit();
+        return token;
     }
 
     /**
      * Retrieves the authentication object for the user identified by the JWT token.
+     * If the user cannot be loaded, the authentication is built from the user's last known snapshot.
+     *
+     * The token is verified once, as by {@link #isValid(String)}.
      *
      * @param token the JWT token to parse.
-     * @return an Authentication object containing the user's details and authorities.
+     * @return an Authentication object containing the user's details and authorities,
+     * or null if the token is not valid.
+     * @throws UserLookupUnavailableException if the user cannot be loaded and has no last known snapshot.
      */
     public Authentication getAuthentication(final String token) {
-        String username = getUsername(token);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        Optional<Claims> verified = verify(token);
+        if (verified.isEmpty()) {
+            return null;
+        }
+        Claims claims = verified.get();
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UserLookupUnavailableException e) {
+            UserSnapshot user = lastKnown(claims.get("id", Long.class), "filter", e);
+            userDetails = JwtEntity.builder()
+                    .id(user.id())
+                    .uuid(user.uuid())
+                    .username(user.username())
+                    .name(user.name())
+                    .authorities(AuthorityUtils.createAuthorityList(user.roles()))
+                    .build();
+        }
         return new UsernamePasswordAuthenticationToken(
                 userDetails,
                 "",
                 userDetails.getAuthorities()
         );
     }
+
+    /**
+     * Returns the last known snapshot of a user whose lookup is unavailable, and counts the degraded answer.
+     *
+     * @param userId the ID of the user, taken from a verified token.
+     * @param type   the kind of answer, for the metric.
+     * @param cause  the failed lookup.
+     * @return the last known snapshot.
+     * @throws UserLookupUnavailableException the cause, if there is no last known snapshot.
+     */
+    private UserSnapshot lastKnown(long userId, String type, UserLookupUnavailableException cause) {
+        UserSnapshot user = userLookupGuard.lastKnown(userId).orElseThrow(() -> cause);
+        meterRegistry.counter(AuthMetrics.DEGRADED_RESPONSES, AuthMetrics.TAG_TYPE, type).increment();
+        return user;
+    }
 }
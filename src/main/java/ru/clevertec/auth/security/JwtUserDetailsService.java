@@ -1,5 +1,7 @@
 package ru.clevertec.auth.security;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -7,11 +9,16 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import ru.clevertec.auth.entity.user.Role;
+import ru.clevertec.auth.cache.NegativeUserCache;
 import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.jfr.UserLookupEvent;
+import ru.clevertec.auth.mapper.UserMapper;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.resilience.UserLookupGuard;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
 import ru.clevertec.auth.service.UserInnerService;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -28,18 +35,49 @@ import java.util.stream.Collectors;
 public class JwtUserDetailsService implements UserDetailsService {
 
     private final UserInnerService userService;
+    private final NegativeUserCache negativeUserCache;
+    private final ObservationRegistry observationRegistry;
+    private final UserLookupGuard userLookupGuard;
+    private final UserMapper userMapper;
 
     /**
      * Loads the user by username.
+     * Usernames recently found not to exist are rejected without a query. A missing user is reported
+     * as UsernameNotFoundException, so the authentication provider still runs a dummy password check
+     * and answers exactly as for a wrong password. The database lookup goes through the {@link UserLookupGuard},
+     * which remembers the loaded user as its last known state.
      *
      * @param username the username to search for in the user service.
      * @return UserDetails object containing user information.
-     * @throws UsernameNotFoundException if the username is not found.
+     * @throws UsernameNotFoundException      if the username is not found.
+     * @throws UserLookupUnavailableException if the user cannot be loaded.
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userService.getByUsername(username);
-        return create(user);
+        return Observation.createNotStarted(AuthMetrics.LOAD_USER_DETAILS, observationRegistry)
+                .observe(() -> load(username));
+    }
+
+    private UserDetails load(String username) {
+        UserLookupEvent event = new UserLookupEvent();
+        event.begin();
+        event.setKey("username");
+        if (negativeUserCache.isMissing(username)) {
+            event.setSource(UserLookupEvent.NEGATIVE_CACHE);
+            event.commit();
+            throw new UsernameNotFoundException("User not found");
+        }
+        event.setSource(UserLookupEvent.DB);
+        try {
+            User user = userLookupGuard.call(() -> userService.getByUsername(username));
+            userLookupGuard.remember(userMapper.toSnapshot(user));
+            return create(user);
+        } catch (EntityNotFoundException e) {
+            negativeUserCache.markMissing(username);
+            throw new UsernameNotFoundException("User not found", e);
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -49,26 +87,24 @@ public class JwtUserDetailsService implements UserDetailsService {
      * @return JwtEntity containing user's ID, UUID, username, name, password, and authorities.
      */
     private JwtEntity create(User user) {
-        Set<Role> roles = user.getRoles();
         return JwtEntity.builder()
                 .id(user.getId())
                 .uuid(user.getUuid())
                 .username(user.getUsername())
                 .name(user.getName())
                 .password(user.getPassword())
-                .authorities(mapToGrantedAuthorities(new ArrayList<>(user.getRoles())))
+                .authorities(mapToGrantedAuthorities(user.getRoleNames()))
                 .build();
     }
 
     /**
-     * Maps a list of roles to a list of GrantedAuthority objects.
+     * Maps a set of role names to a list of GrantedAuthority objects.
      *
-     * @param roles the roles to map to GrantedAuthority objects.
+     * @param roles the role names to map to GrantedAuthority objects.
      * @return a list of GrantedAuthority objects.
      */
-    private List<GrantedAuthority> mapToGrantedAuthorities(List<Role> roles) {
+    private List<GrantedAuthority> mapToGrantedAuthorities(Set<String> roles) {
         return roles.stream()
-                .map(Role::getName)
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
     }
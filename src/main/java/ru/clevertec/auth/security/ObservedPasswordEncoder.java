@@ -0,0 +1,58 @@
+package ru.clevertec.auth.security;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.clevertec.auth.deadline.Deadline;
+import ru.clevertec.auth.jfr.PasswordHashEvent;
+import ru.clevertec.auth.metrics.AuthMetrics;
+
+/**
+ * Password encoder decorator observing password hashing and checking,
+ * which yields a timer, a tracing span and a {@link PasswordHashEvent} per call.
+ * Neither is started once the deadline of the current request has passed.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class ObservedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ObservationRegistry observationRegistry;
+
+    public ObservedPasswordEncoder(PasswordEncoder delegate, ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        Deadline.check("password hashing");
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String encoded = Observation.createNotStarted(AuthMetrics.PASSWORD_ENCODE, observationRegistry)
+                .observe(() -> delegate.encode(rawPassword));
+        event.setOperation("encode");
+        event.setCost(PasswordHashEvent.costOf(encoded));
+        event.commit();
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Deadline.check("password check");
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        Boolean matches = Observation.createNotStarted(AuthMetrics.PASSWORD_MATCHES, observationRegistry)
+                .observe(() -> delegate.matches(rawPassword, encodedPassword));
+        event.setOperation("matches");
+        event.setCost(PasswordHashEvent.costOf(encodedPassword));
+        event.commit();
+        return Boolean.TRUE.equals(matches);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -3,6 +3,9 @@ package ru.clevertec.auth.service;
 
 import ru.clevertec.auth.entity.dto.auth.JwtRequest;
 import ru.clevertec.auth.entity.dto.auth.JwtResponse;
+import ru.clevertec.auth.entity.dto.auth.TokenCheck;
+
+import java.util.Optional;
 
 public interface AuthService {
 
@@ -11,4 +14,6 @@ public interface AuthService {
     JwtResponse refresh(String refreshToken);
 
     JwtResponse validate(String token);
+
+    Optional<TokenCheck> check(String token);
 }
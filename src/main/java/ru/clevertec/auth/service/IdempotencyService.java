@@ -0,0 +1,30 @@
+package ru.clevertec.auth.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Service running requests at most once per client-supplied idempotency key.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public interface IdempotencyService {
+
+    /**
+     * Runs a request once per key and replays its response for every retry with the same key.
+     * A retry arriving while the first request is still running waits for its outcome.
+     * Failed requests are not stored, so a retry after a failure runs the request again.
+     *
+     * @param scope        the endpoint and caller the key belongs to.
+     * @param key          the idempotency key, or null to just run the request.
+     * @param request      the members of the request, write-only ones such as passwords included;
+     *                     a retry with the same key and a different request is rejected.
+     * @param responseType the type of the response.
+     * @param action       the request.
+     * @param <T>          the type of the response.
+     * @return the response of the first run of the request.
+     * @throws ru.clevertec.auth.exception.IdempotencyKeyException if the key is malformed, still in progress,
+     *                                                             or was used with a different request.
+     */
+    <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action);
+}
@@ -0,0 +1,20 @@
+package ru.clevertec.auth.service;
+
+import ru.clevertec.auth.audit.LoginActivity;
+
+/**
+ * Service for recording authentication events for the login audit trail.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public interface LoginAuditService {
+
+    /**
+     * Records an authentication event. The event is written asynchronously; the call only
+     * waits when the buffer is full and the blocking overflow policy is configured.
+     *
+     * @param activity the event to record.
+     */
+    void record(LoginActivity activity);
+}
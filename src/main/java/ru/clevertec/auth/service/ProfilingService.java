@@ -0,0 +1,10 @@
+package ru.clevertec.auth.service;
+
+import ru.clevertec.auth.jfr.OnDemandRecording;
+
+import java.time.Duration;
+
+public interface ProfilingService {
+
+    OnDemandRecording start(Duration duration);
+}
@@ -1,6 +1,7 @@
 package ru.clevertec.auth.service;
 
 
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
 import ru.clevertec.auth.entity.user.User;
 
 public interface UserInnerService {
@@ -8,4 +9,6 @@ public interface UserInnerService {
     User getById(long id);
 
     User getByUsername(String username);
+
+    UserSnapshot getSnapshotById(long id);
 }
@@ -1,14 +1,20 @@
 package ru.clevertec.auth.service;
 
+import ru.clevertec.auth.entity.dto.user.UserPatchRequest;
 import ru.clevertec.auth.entity.dto.user.UserRequest;
 import ru.clevertec.auth.entity.dto.user.UserResponse;
+import ru.clevertec.auth.entity.dto.user.VersionedUserResponse;
 
 
 public interface UserViewService {
 
     UserResponse getUserDtoById(long id);
 
-    UserResponse updateUser(Long id, UserRequest user);
+    VersionedUserResponse getVersionedUser(long id);
+
+    VersionedUserResponse updateUser(Long id, UserRequest user, Long expectedVersion);
+
+    VersionedUserResponse patchUser(Long id, UserPatchRequest patch, Long expectedVersion);
 
     UserResponse create(UserRequest userRequest, String role);
 
@@ -1,18 +1,29 @@
 package ru.clevertec.auth.service.impl;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.stereotype.Service;
-import ru.clevertec.auth.entity.user.Role;
-import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.audit.LoginActivity;
+import ru.clevertec.auth.deadline.DeadlineExceededException;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
 import ru.clevertec.auth.service.AuthService;
-import ru.clevertec.auth.service.UserInnerService;
+import ru.clevertec.auth.service.LoginAuditService;
 import ru.clevertec.auth.entity.dto.auth.JwtRequest;
 import ru.clevertec.auth.entity.dto.auth.JwtResponse;
+import ru.clevertec.auth.entity.dto.auth.TokenCheck;
+import ru.clevertec.auth.security.JwtEntity;
 import ru.clevertec.auth.security.JwtTokenProvider;
 
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service implementation for authentication operations.
@@ -26,11 +37,16 @@ import java.util.stream.Collectors;
 public class AuthServiceImpl implements AuthService {
 
     private final AuthenticationManager authenticationManager;
-    private final UserInnerService userService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final LoginAuditService loginAuditService;
+    private final ObservationRegistry observationRegistry;
 
     /**
      * Authenticates a user and generates JWT tokens based on the provided login request.
+     * The response is built from the authenticated principal, so no connection is needed
+     * once the credentials have been checked. A login the request deadline stopped, or whose user
+     * could not be looked up, before the credentials could be checked is not recorded as a failed one;
+     * the cause is rethrown so that it is answered with 504 or 503 instead of an authentication failure.
      *
      * @param loginRequest the login request containing the username and password.
      * @return a JwtResponse containing the user's details and JWT tokens.
@@ -39,21 +55,46 @@ public class AuthServiceImpl implements AuthService {
     public JwtResponse login(final JwtRequest loginRequest) {
         JwtResponse jwtResponse = new JwtResponse();
 
-            authenticationManager.authenticate(
+        Authentication authentication;
+        Observation observation = Observation.start(AuthMetrics.AUTHENTICATE, observationRegistry);
+        try (Observation.Scope ignored = observation.openScope()) {
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getUsername(), loginRequest.getPassword())
             );
-        User user = userService.getByUsername(loginRequest.getUsername());
+            observation.lowCardinalityKeyValue(AuthMetrics.TAG_OUTCOME, "success");
+        } catch (InternalAuthenticationServiceException e) {
+            if (e.getCause() instanceof DeadlineExceededException
+                    || e.getCause() instanceof UserLookupUnavailableException) {
+                RuntimeException cause = (RuntimeException) e.getCause();
+                observation.error(cause);
+                throw cause;
+            }
+            observation.lowCardinalityKeyValue(AuthMetrics.TAG_OUTCOME, "failure");
+            observation.error(e);
+            loginAuditService.record(LoginActivity.failed(loginRequest.getUsername(), LoginActivity.Type.LOGIN));
+            throw e;
+        } catch (AuthenticationException e) {
+            observation.lowCardinalityKeyValue(AuthMetrics.TAG_OUTCOME, "failure");
+            observation.error(e);
+            loginAuditService.record(LoginActivity.failed(loginRequest.getUsername(), LoginActivity.Type.LOGIN));
+            throw e;
+        } finally {
+            observation.stop();
+        }
+        JwtEntity user = (JwtEntity) authentication.getPrincipal();
+        Set<String> roles = AuthorityUtils.authorityListToSet(user.getAuthorities());
         jwtResponse.setId(user.getId());
         jwtResponse.setUuid(user.getUuid());
         jwtResponse.setUsername(user.getUsername());
-        jwtResponse.setRoles(user.getRoles().stream().map(Role::getName).collect(Collectors.toSet()));
+        jwtResponse.setRoles(roles);
         jwtResponse.setAccessToken(jwtTokenProvider.createAccessToken(
-                user.getId(), user.getUsername(), user.getRoles())
+                user.getId(), user.getUsername(), roles)
         );
         jwtResponse.setRefreshToken(jwtTokenProvider.createRefreshToken(
                 user.getId(), user.getUsername())
         );
+        loginAuditService.record(LoginActivity.succeeded(user.getId(), user.getUsername(), LoginActivity.Type.LOGIN));
         return jwtResponse;
     }
 
@@ -65,7 +106,10 @@ public class AuthServiceImpl implements AuthService {
      */
     @Override
     public JwtResponse refresh(final String refreshToken) {
-        return jwtTokenProvider.refreshUserTokens(refreshToken);
+        JwtResponse jwtResponse = jwtTokenProvider.refreshUserTokens(refreshToken);
+        loginAuditService.record(LoginActivity.succeeded(
+                jwtResponse.getId(), jwtResponse.getUsername(), LoginActivity.Type.REFRESH));
+        return jwtResponse;
     }
 
     /**
@@ -76,6 +120,22 @@ public class AuthServiceImpl implements AuthService {
      */
     @Override
     public JwtResponse validate(String token) {
-        return jwtTokenProvider.getJwtResponse(token);
+        JwtResponse jwtResponse = jwtTokenProvider.getJwtResponse(token);
+        loginAuditService.record(LoginActivity.succeeded(
+                jwtResponse.getId(), jwtResponse.getUsername(), LoginActivity.Type.VALIDATE));
+        return jwtResponse;
+    }
+
+    /**
+     * Checks the provided access token for an authorization subrequest of a gateway.
+     * Checks are not audited: the gateway issues one for every proxied request,
+     * so they would flood the audit log and the last login of the user.
+     *
+     * @param token the JWT token to check.
+     * @return the user and expiry of the token, or an empty Optional if the token is not valid.
+     */
+    @Override
+    public Optional<TokenCheck> check(String token) {
+        return jwtTokenProvider.check(token);
     }
 }
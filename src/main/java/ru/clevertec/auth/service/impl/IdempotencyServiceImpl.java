@@ -0,0 +1,256 @@
+package ru.clevertec.auth.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.clevertec.auth.deadline.Deadline;
+import ru.clevertec.auth.exception.IdempotencyKeyException;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.repository.IdempotencyKeyRepository;
+import ru.clevertec.auth.security.DerivedKeys;
+import ru.clevertec.auth.service.IdempotencyService;
+import ru.clevertec.auth.service.props.IdempotencyProperties;
+import ru.clevertec.auth.service.props.JwtProperties;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency service keeping the responses in a bounded local cache in front of the
+ * {@code idempotency_keys} table. Retries on this instance are answered from the cache or wait for
+ * the request still running here; retries on other instances find the key claimed or completed in
+ * the table. A retry finding the key claimed polls the table until the request completes, for at most
+ * the in-progress timeout and the request deadline, and only then answers 409. A claim whose request
+ * never completed is taken over once the in-progress timeout is over.
+ * Requests are compared by an HMAC of the members the caller passes, passwords included, under a key
+ * derived from the server secret for this purpose only.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final SecretKeySpec fingerprintKey;
+    private final Cache<ScopedKey, IdempotencyKeyRepository.StoredKey> responses;
+    private final Map<ScopedKey, CompletableFuture<IdempotencyKeyRepository.StoredKey>> inFlight =
+            new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-key-pruner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  IdempotencyProperties properties,
+                                  JwtProperties jwtProperties,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.fingerprintKey = DerivedKeys.derive(jwtProperties.getSecret(), "idempotency-fingerprint");
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Schedules the deletion of expired keys.
+     */
+    @PostConstruct
+    public void start() {
+        long interval = properties.getPruneInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::pruneSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the deletion of expired keys.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw IdempotencyKeyException.malformed(MAX_KEY_LENGTH);
+        }
+        ScopedKey scopedKey = new ScopedKey(scope, key);
+        String fingerprint = fingerprint(request);
+        IdempotencyKeyRepository.StoredKey cached = responses.getIfPresent(scopedKey);
+        if (cached != null) {
+            return replay(cached, fingerprint, responseType, "cache");
+        }
+        CompletableFuture<IdempotencyKeyRepository.StoredKey> running = new CompletableFuture<>();
+        CompletableFuture<IdempotencyKeyRepository.StoredKey> existing = inFlight.putIfAbsent(scopedKey, running);
+        if (existing != null) {
+            return replay(await(existing), fingerprint, responseType, "in_flight");
+        }
+        try {
+            T response = runOnce(scopedKey, fingerprint, responseType, action, running);
+            responses.put(scopedKey, running.join());
+            return response;
+        } catch (RuntimeException e) {
+            running.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, running);
+        }
+    }
+
+    /**
+     * Deletes the expired keys chunk by chunk.
+     *
+     * @return the number of deleted keys.
+     */
+    public int prune() {
+        Instant now = Instant.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepository.deleteExpiredBefore(now, properties.getPruneChunkSize());
+            total += deleted;
+        } while (deleted == properties.getPruneChunkSize());
+        return total;
+    }
+
+    private <T> T runOnce(ScopedKey scopedKey,
+                          String fingerprint,
+                          Class<T> responseType,
+                          Supplier<T> action,
+                          CompletableFuture<IdempotencyKeyRepository.StoredKey> running) {
+        Deadline wait = Deadline.after(properties.getInProgressTimeout());
+        Deadline waitUntil = Deadline.current().map(wait::min).orElse(wait);
+        while (!claim(scopedKey, fingerprint)) {
+            Optional<IdempotencyKeyRepository.StoredKey> stored = idempotencyKeyRepository
+                    .find(scopedKey.scope(), scopedKey.key())
+                    .filter(record -> record.response() != null || !record.fingerprint().equals(fingerprint));
+            if (stored.isPresent()) {
+                running.complete(stored.get());
+                return replay(stored.get(), fingerprint, responseType, "database");
+            }
+            pauseBeforePoll(waitUntil);
+        }
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.release(scopedKey.scope(), scopedKey.key());
+            throw e;
+        }
+        IdempotencyKeyRepository.StoredKey stored =
+                new IdempotencyKeyRepository.StoredKey(fingerprint, write(response));
+        idempotencyKeyRepository.complete(scopedKey.scope(), scopedKey.key(), stored.response());
+        running.complete(stored);
+        return response;
+    }
+
+    private boolean claim(ScopedKey scopedKey, String fingerprint) {
+        Instant now = Instant.now();
+        return idempotencyKeyRepository.claim(scopedKey.scope(), scopedKey.key(), fingerprint,
+                now.plus(properties.getTtl()), now.minus(properties.getInProgressTimeout()));
+    }
+
+    private void pauseBeforePoll(Deadline waitUntil) {
+        long pause = Math.min(properties.getInProgressPollInterval().toMillis(), waitUntil.remaining().toMillis());
+        if (pause <= 0) {
+            throw IdempotencyKeyException.inProgress();
+        }
+        try {
+            Thread.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw IdempotencyKeyException.inProgress();
+        }
+    }
+
+    private <T> T replay(IdempotencyKeyRepository.StoredKey stored,
+                         String fingerprint,
+                         Class<T> responseType,
+                         String source) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw IdempotencyKeyException.reused();
+        }
+        meterRegistry.counter(AuthMetrics.IDEMPOTENT_REPLAYS, AuthMetrics.TAG_TYPE, source).increment();
+        try {
+            return objectMapper.readValue(stored.response(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response cannot be read", e);
+        }
+    }
+
+    private static IdempotencyKeyRepository.StoredKey await(
+            CompletableFuture<IdempotencyKeyRepository.StoredKey> running) {
+        try {
+            return Deadline.current()
+                    .map(deadline -> deadline.await(running, "idempotent replay"))
+                    .orElseGet(running::join);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(fingerprintKey);
+            return HexFormat.of().formatHex(mac.doFinal(objectMapper.writeValueAsBytes(request)));
+        } catch (GeneralSecurityException | JsonProcessingException e) {
+            throw new IllegalStateException("Request fingerprint cannot be computed", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored", e);
+        }
+    }
+
+    private void pruneSafely() {
+        try {
+            prune();
+        } catch (Exception e) {
+            log.warn("Failed to delete expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    private record ScopedKey(String scope, String key) {
+    }
+}
@@ -0,0 +1,151 @@
+package ru.clevertec.auth.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.clevertec.auth.audit.LoginActivity;
+import ru.clevertec.auth.audit.LoginActivityBuffer;
+import ru.clevertec.auth.repository.LoginActivityRepository;
+import ru.clevertec.auth.service.LoginAuditService;
+import ru.clevertec.auth.service.props.LoginAuditProperties;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind implementation of the login audit.
+ * Request threads only put events into a lock-free ring buffer; a single background thread
+ * drains it in batches, coalescing the last login time to one upsert per user per flush.
+ * A batch that fails to be written is retried once and then dropped and counted.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class LoginAuditServiceImpl implements LoginAuditService {
+
+    private final LoginActivityRepository loginActivityRepository;
+    private final LoginAuditProperties properties;
+    private final LoginActivityBuffer buffer;
+    private final LongAdder failedWrites = new LongAdder();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "login-audit-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LoginAuditServiceImpl(LoginActivityRepository loginActivityRepository, LoginAuditProperties properties) {
+        this.loginActivityRepository = loginActivityRepository;
+        this.properties = properties;
+        this.buffer = new LoginActivityBuffer(properties.getCapacity(), properties.getOverflow());
+    }
+
+    /**
+     * Schedules the background writer.
+     */
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            long interval = properties.getFlushInterval().toMillis();
+            executor.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the background writer and writes the events still in the buffer.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (executor.awaitTermination(properties.getFlushInterval().toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            flushSafely();
+        }
+    }
+
+    @Override
+    public void record(LoginActivity activity) {
+        if (properties.isEnabled()) {
+            buffer.offer(activity);
+        }
+    }
+
+    /**
+     * Drains the buffer and writes its content in batches. Must only be called from a single thread.
+     *
+     * @return the number of written events.
+     */
+    public int flush() {
+        int written = 0;
+        List<LoginActivity> batch = new ArrayList<>(Math.min(properties.getBatchSize(), buffer.size()));
+        while (buffer.drain(batch::add, properties.getBatchSize()) > 0) {
+            if (write(batch)) {
+                written += batch.size();
+            }
+            batch.clear();
+        }
+        return written;
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full.
+     *
+     * @return the number of dropped events.
+     */
+    public long dropped() {
+        return buffer.dropped();
+    }
+
+    /**
+     * Returns the number of events dropped because their batch could not be written.
+     *
+     * @return the number of events lost to failed writes.
+     */
+    public long failedWrites() {
+        return failedWrites.sum();
+    }
+
+    private boolean write(List<LoginActivity> batch) {
+        Map<Long, Instant> lastLogins = lastLogins(batch);
+        try {
+            loginActivityRepository.saveAll(batch, lastLogins);
+            return true;
+        } catch (RuntimeException first) {
+            try {
+                loginActivityRepository.saveAll(batch, lastLogins);
+                return true;
+            } catch (RuntimeException retry) {
+                failedWrites.add(batch.size());
+                log.warn("Failed to write login audit batch of {} events: {}", batch.size(), retry.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush login audit: {}", e.getMessage());
+        }
+    }
+
+    private static Map<Long, Instant> lastLogins(List<LoginActivity> batch) {
+        Map<Long, Instant> lastLogins = new HashMap<>();
+        for (LoginActivity activity : batch) {
+            if (activity.type() == LoginActivity.Type.LOGIN && activity.success() && activity.userId() != null) {
+                lastLogins.merge(activity.userId(), activity.occurredAt(),
+                        (current, next) -> next.isAfter(current) ? next : current);
+            }
+        }
+        return lastLogins;
+    }
+}
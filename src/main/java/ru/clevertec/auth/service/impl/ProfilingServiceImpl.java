@@ -0,0 +1,105 @@
+package ru.clevertec.auth.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.clevertec.auth.exception.ProfilingException;
+import ru.clevertec.auth.jfr.OnDemandRecording;
+import ru.clevertec.auth.jfr.PasswordHashEvent;
+import ru.clevertec.auth.jfr.TokenMintEvent;
+import ru.clevertec.auth.jfr.TokenVerifyEvent;
+import ru.clevertec.auth.jfr.UserLookupEvent;
+import ru.clevertec.auth.service.ProfilingService;
+import ru.clevertec.auth.service.props.ProfilingProperties;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service running bounded, on-demand JFR recordings.
+ * A recording uses the configured JDK settings with the application events enabled on top,
+ * and only one recording runs at a time. Recordings are stopped and, if nobody collects them,
+ * discarded by a scheduler, so no request thread waits for them.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+public class ProfilingServiceImpl implements ProfilingService {
+
+    private static final List<String> EVENTS = List.of(
+            TokenVerifyEvent.NAME, TokenMintEvent.NAME, PasswordHashEvent.NAME, UserLookupEvent.NAME);
+
+    private final ProfilingProperties properties;
+    private final Semaphore permit = new Semaphore(1);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jfr-recording-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Stops the scheduler of recordings.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Starts a recording of the JVM that stops by itself after the given time.
+     * The caller owns the recording and is responsible for closing it.
+     *
+     * @param duration the recording time; capped at the configured maximum, the default if null.
+     * @return the running recording.
+     * @throws ProfilingException if profiling is disabled or another recording is running.
+     */
+    @Override
+    public OnDemandRecording start(Duration duration) {
+        if (!properties.isEnabled()) {
+            throw ProfilingException.disabled();
+        }
+        if (!permit.tryAcquire()) {
+            throw ProfilingException.alreadyRunning();
+        }
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(properties.getSettings()));
+        } catch (IOException | ParseException e) {
+            permit.release();
+            throw new IllegalStateException("JFR settings " + properties.getSettings() + " cannot be read", e);
+        }
+        Duration bounded = bounded(duration);
+        OnDemandRecording onDemand = new OnDemandRecording(
+                recording, bounded, properties.getCollectTimeout(), permit::release);
+        try {
+            EVENTS.forEach(event -> recording.enable(event).withThreshold(Duration.ZERO));
+            recording.setName("auth-service-on-demand");
+            recording.setToDisk(true);
+            recording.setMaxSize(properties.getMaxSize().toBytes());
+            recording.start();
+            scheduler.schedule(onDemand::stop, bounded.toMillis(), TimeUnit.MILLISECONDS);
+            scheduler.schedule(onDemand::closeIfNotCollected, onDemand.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            onDemand.close();
+            throw e;
+        }
+        return onDemand;
+    }
+
+    private Duration bounded(Duration duration) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            return properties.getDefaultDuration();
+        }
+        return duration.compareTo(properties.getMaxDuration()) > 0 ? properties.getMaxDuration() : duration;
+    }
+}
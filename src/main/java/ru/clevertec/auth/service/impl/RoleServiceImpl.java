@@ -2,6 +2,7 @@ package ru.clevertec.auth.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.clevertec.auth.entity.user.Role;
 import ru.clevertec.auth.repository.RoleRepository;
 import ru.clevertec.auth.service.RoleService;
@@ -28,6 +29,7 @@ public class RoleServiceImpl implements RoleService {
      * @throws EntityNotFoundException if no role is found with the provided name.
      */
     @Override
+    @Transactional(readOnly = true)
     public Role getByName(String name) {
         return roleRepository.findByName(name).orElseThrow(
                 ()-> EntityNotFoundException.of(Role.class,name));
@@ -1,14 +1,25 @@
 package ru.clevertec.auth.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.auth.cache.CacheNames;
+import ru.clevertec.auth.cache.UserSnapshotCache;
+import ru.clevertec.auth.entity.dto.user.UserPatchRequest;
 import ru.clevertec.auth.entity.dto.user.UserRequest;
 import ru.clevertec.auth.entity.dto.user.UserResponse;
+import ru.clevertec.auth.entity.dto.user.VersionedUserResponse;
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
 import ru.clevertec.auth.entity.user.Role;
+import ru.clevertec.auth.entity.user.RoleMask;
 import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.event.UserChangedEvent;
 import ru.clevertec.auth.mapper.UserMapper;
 import ru.clevertec.auth.repository.UserRepository;
 import ru.clevertec.auth.service.RoleService;
@@ -17,7 +28,6 @@ import ru.clevertec.auth.service.UserViewService;
 import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
 import ru.clevertec.exceptionhandlerstarter.exception.UniqueUsernameException;
 
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -37,6 +47,8 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
     private final RoleService roleService;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserSnapshotCache userSnapshotCache;
 
     /**
      * Retrieves a user by their ID.
@@ -46,9 +58,10 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
      * @throws EntityNotFoundException if no user is found with the provided ID.
      */
     @Override
+    @Transactional(readOnly = true)
     public User getById(long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> EntityNotFoundException.of(User.class, id));
+        return withRoleNames(userRepository.findById(id)
+                .orElseThrow(() -> EntityNotFoundException.of(User.class, id)));
     }
 
     /**
@@ -59,9 +72,23 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
      * @throws UsernameNotFoundException if no user is found with the provided username.
      */
     @Override
+    @Transactional(readOnly = true)
     public User getByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> EntityNotFoundException.of(User.class,username) );
+        return withRoleNames(userRepository.findByUsername(username)
+                .orElseThrow(() -> EntityNotFoundException.of(User.class,username) ));
+    }
+
+    /**
+     * Retrieves a snapshot of a user by their ID from the user snapshot cache.
+     * Concurrent misses for the same ID share one database query.
+     *
+     * @param id the ID of the user to retrieve.
+     * @return the snapshot of the found user.
+     * @throws EntityNotFoundException if no user is found with the provided ID.
+     */
+    @Override
+    public UserSnapshot getSnapshotById(long id) {
+        return userSnapshotCache.get(id);
     }
 
     /**
@@ -72,33 +99,93 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
      * @throws EntityNotFoundException if no user is found with the provided ID.
      */
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getUserDtoById(long id) {
-        User user = userRepository.findById(id)
+        return userRepository.findUserResponseById(id)
                 .orElseThrow(() -> EntityNotFoundException.of(User.class, id));
-        return userMapper.toDto(user);
     }
 
 
+    /**
+     * Retrieves a user projection together with its version, which is used as the user's entity tag.
+     * Body and tag come from the same row, and the result is cached until the user changes,
+     * so both conditional and plain reads are answered without touching the database.
+     *
+     * @param id the ID of the user.
+     * @return the versioned UserResponse of the found user.
+     * @throws EntityNotFoundException if no user is found with the provided ID.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.USER_VERSIONS, key = "#id")
+    public VersionedUserResponse getVersionedUser(long id) {
+        return userRepository.findVersionedUserResponseById(id)
+                .orElseThrow(() -> EntityNotFoundException.of(User.class, id));
+    }
+
     /**
      * Updates a user's information based on the provided UserRequest object.
      *
-     * @param id   the ID of the user to update.
-     * @param user the UserRequest object containing the new user information.
-     * @return the updated UserResponse DTO.
+     * @param id              the ID of the user to update.
+     * @param user            the UserRequest object containing the new user information.
+     * @param expectedVersion the version the client based its changes on, or null for an unconditional update.
+     * @return the updated user together with its new version.
      * @throws UniqueUsernameException if the username is already taken by another user.
+     * @throws ObjectOptimisticLockingFailureException if the user's version differs from the expected one.
      */
     @Override
-    public UserResponse updateUser(Long id, UserRequest user) {
-        User existing = getById(id);
-        Optional<User> byUsername = userRepository.findByUsername(user.username());
-        if (byUsername.isPresent()
-                && !existing.getUsername().equals(user.username())) {
+    @Transactional
+    public VersionedUserResponse updateUser(Long id, UserRequest user, Long expectedVersion) {
+        User existing = findUser(id, expectedVersion);
+        if (!existing.getUsername().equals(user.username())
+                && userRepository.existsByUsername(user.username())) {
             throw new UniqueUsernameException("User with the current username already exists");
         }
         existing.setName(user.name());
         existing.setUsername(user.username());
         existing.setPassword(passwordEncoder.encode(user.password()));
-        return userMapper.toDto(userRepository.save(existing));
+        User saved = userRepository.saveAndFlush(existing);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), UserChangedEvent.Type.UPDATED));
+        return userMapper.toVersionedDto(saved);
+    }
+
+    /**
+     * Applies a partial update to a user. Only the supplied attributes that differ from the
+     * stored ones are changed, so the UPDATE statement contains only those columns and the
+     * password is hashed only when a new one is given.
+     *
+     * @param id              the ID of the user to update.
+     * @param patch           the merge patch with the attributes to change.
+     * @param expectedVersion the version the client based its changes on, or null for an unconditional update.
+     * @return the updated user together with its new version.
+     * @throws UniqueUsernameException if the new username is already taken by another user.
+     * @throws ObjectOptimisticLockingFailureException if the user's version differs from the expected one.
+     */
+    @Override
+    @Transactional
+    public VersionedUserResponse patchUser(Long id, UserPatchRequest patch, Long expectedVersion) {
+        User existing = findUser(id, expectedVersion);
+        boolean changed = false;
+        if (patch.username() != null && !patch.username().equals(existing.getUsername())) {
+            if (userRepository.existsByUsername(patch.username())) {
+                throw new UniqueUsernameException("User with the current username already exists");
+            }
+            existing.setUsername(patch.username());
+            changed = true;
+        }
+        if (patch.name() != null && !patch.name().equals(existing.getName())) {
+            existing.setName(patch.name());
+            changed = true;
+        }
+        if (patch.password() != null) {
+            existing.setPassword(passwordEncoder.encode(patch.password()));
+            changed = true;
+        }
+        if (changed) {
+            userRepository.flush();
+            eventPublisher.publishEvent(new UserChangedEvent(existing.getId(), UserChangedEvent.Type.UPDATED));
+        }
+        return userMapper.toVersionedDto(existing);
     }
 
     /**
@@ -127,9 +214,12 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
                 .username(userRequest.username())
                 .password(passwordEncoder.encode(userRequest.passwordConfirmation()))
                 .roles(Set.of(roleSubscriber,roleRequest))
+                .roleMask(RoleMask.of(Set.of(roleSubscriber,roleRequest)))
                 .build();
 
-        return userMapper.toDto(userRepository.save(user));
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), UserChangedEvent.Type.CREATED));
+        return userMapper.toDto(saved);
     }
 
     /**
@@ -139,6 +229,7 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
      * @return the created UserResponse DTO.
      */
     @Override
+    @Transactional
     public UserResponse createWithRoleSubscriber(UserRequest userRequest) {
         validate(userRequest.name(), userRequest);
 
@@ -155,9 +246,12 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
                 .username(userRequest.username())
                 .password(passwordEncoder.encode(userRequest.passwordConfirmation()))
                 .roles(Set.of(roleSubscriber))
+                .roleMask(RoleMask.of(Set.of(roleSubscriber)))
                 .build();
 
-        return userMapper.toDto(userRepository.save(user));
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), UserChangedEvent.Type.CREATED));
+        return userMapper.toDto(saved);
     }
 
     /**
@@ -166,10 +260,54 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
      * @param userId the ID of the user to archive.
      */
     @Override
+    @Transactional
     public void archive(long userId) {
-        User existing = getById(userId);
+        User existing = findUser(userId);
         existing.setArchived(true);
         userRepository.save(existing);
+        eventPublisher.publishEvent(new UserChangedEvent(userId, UserChangedEvent.Type.ARCHIVED));
+    }
+
+    /**
+     * Makes the role names of a user readable outside of the current transaction.
+     * Users without a denormalized role mask fall back to loading the role collection.
+     *
+     * @param user the loaded user.
+     * @return the same user.
+     */
+    private User withRoleNames(User user) {
+        if (user.getRoleMask() == null) {
+            Hibernate.initialize(user.getRoles());
+        }
+        return user;
+    }
+
+    /**
+     * Retrieves a user by their ID without loading their roles.
+     *
+     * @param id the ID of the user to retrieve.
+     * @return the found User object.
+     * @throws EntityNotFoundException if no user is found with the provided ID.
+     */
+    private User findUser(long id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> EntityNotFoundException.of(User.class, id));
+    }
+
+    /**
+     * Retrieves a user by their ID and checks that it still has the version the caller expects.
+     *
+     * @param id              the ID of the user to retrieve.
+     * @param expectedVersion the expected version, or null to skip the check.
+     * @return the found User object.
+     * @throws ObjectOptimisticLockingFailureException if the user's version differs from the expected one.
+     */
+    private User findUser(long id, Long expectedVersion) {
+        User user = findUser(id);
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(User.class, id);
+        }
+        return user;
     }
 
     /**
@@ -179,7 +317,7 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
      * @return True if the house exists, false otherwise.
      */
     private boolean isExist(UUID uuid) {
-        return userRepository.findByUuid(uuid).isPresent();
+        return userRepository.existsByUuid(uuid);
     }
 
     /**
@@ -191,8 +329,7 @@ public class UserServiceImpl implements UserInnerService, UserViewService {
      */
     private void validate(String username, UserRequest userRequest) {
 
-        Optional<User> byUsername = userRepository.findByUsername(username);
-        if (byUsername.isPresent()) {
+        if (userRepository.existsByUsername(username)) {
             throw new IllegalArgumentException("User already exists.");
         }
         if (!userRequest.password().equals(userRequest.passwordConfirmation())) {
@@ -0,0 +1,20 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "cache.invalidation")
+public class CacheInvalidationProperties {
+
+    private boolean enabled = true;
+    private String channel = "auth_cache_invalidation";
+    private Duration pollTimeout = Duration.ofSeconds(10);
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+    private Duration livenessTimeout = Duration.ofSeconds(5);
+    private int maxIdsPerMessage = 500;
+}
@@ -0,0 +1,40 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "limiter")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private List<String> paths = new ArrayList<>(List.of("/auth/**", "/users/**"));
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    private double smoothing = 0.2;
+    private double rttTolerance = 1.5;
+    private int longWindow = 600;
+    private List<Lane> lanes = new ArrayList<>(List.of(
+            new Lane("validation", 0.5, List.of("/auth/validate", "/auth/refresh", "/auth/check")),
+            new Lane("users", 0.2, List.of("/users/**")),
+            new Lane("credentials", 0.3, List.of("/auth/login", "/auth/register"))
+    ));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lane {
+
+        private String name;
+        private double share;
+        private List<String> paths = new ArrayList<>();
+    }
+}
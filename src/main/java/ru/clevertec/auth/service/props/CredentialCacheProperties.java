@@ -0,0 +1,20 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "cache.credentials")
+public class CredentialCacheProperties {
+
+    private boolean enabled = false;
+    private Set<String> clients = new HashSet<>();
+    private long maximumSize = 1000;
+    private Duration expireAfterWrite = Duration.ofSeconds(60);
+}
@@ -0,0 +1,34 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "datasource.routing")
+public class DataSourceRoutingProperties {
+
+    private boolean enabled;
+    private List<Replica> replicas = new ArrayList<>();
+    private Duration maxLag = Duration.ofSeconds(5);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private boolean fallbackToPrimary = true;
+    private Duration stickyWindow = Duration.ofSeconds(2);
+    private long stickyMaximumWriters = 10_000;
+    private String stickySessionHeader = "X-Client-Session";
+
+    @Data
+    public static class Replica {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
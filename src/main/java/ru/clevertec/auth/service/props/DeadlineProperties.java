@@ -0,0 +1,37 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+    private String timeoutHeader = "X-Request-Timeout";
+    private String deadlineHeader = "X-Request-Deadline";
+    private List<Budget> budgets = new ArrayList<>(List.of(
+            new Budget(List.of("/auth/validate", "/auth/check"), Duration.ofMillis(500)),
+            new Budget(List.of("/auth/refresh"), Duration.ofSeconds(1)),
+            new Budget(List.of("/auth/login"), Duration.ofSeconds(2)),
+            new Budget(List.of("/auth/register"), Duration.ofSeconds(3)),
+            new Budget(List.of("/users/**"), Duration.ofSeconds(2))
+    ));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+
+        private List<String> paths = new ArrayList<>();
+        private Duration budget;
+    }
+}
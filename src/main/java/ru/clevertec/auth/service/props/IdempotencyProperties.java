@@ -0,0 +1,20 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    private Duration ttl = Duration.ofHours(24);
+    private Duration inProgressTimeout = Duration.ofSeconds(30);
+    private Duration inProgressPollInterval = Duration.ofMillis(100);
+    private long cacheMaximumSize = 10_000;
+    private Duration pruneInterval = Duration.ofMinutes(10);
+    private int pruneChunkSize = 1000;
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @Data
 @ConfigurationProperties(prefix = "security.jwt")
@@ -12,4 +14,5 @@ public class JwtProperties {
     private String secret;
     private long access;
     private long refresh;
+    private Duration checkMaxAge = Duration.ofMinutes(5);
 }
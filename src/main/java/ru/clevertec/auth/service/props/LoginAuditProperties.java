@@ -0,0 +1,20 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import ru.clevertec.auth.audit.LoginActivityBuffer;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "audit.login")
+public class LoginAuditProperties {
+
+    private boolean enabled = true;
+    private int capacity = 8192;
+    private LoginActivityBuffer.Overflow overflow = LoginActivityBuffer.Overflow.DROP;
+    private Duration flushInterval = Duration.ofMillis(500);
+    private int batchSize = 1000;
+}
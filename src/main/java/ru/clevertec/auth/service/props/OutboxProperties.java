@@ -0,0 +1,36 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    private Relay relay = new Relay();
+    private Sink sink = new Sink();
+
+    @Data
+    public static class Relay {
+
+        private boolean enabled;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private int batchSize = 100;
+        private Duration lease = Duration.ofMinutes(1);
+        private Duration retention = Duration.ofDays(1);
+        private Duration pruneInterval = Duration.ofMinutes(1);
+        private int pruneChunkSize = 1000;
+    }
+
+    @Data
+    public static class Sink {
+
+        private String webhookUrl;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "profiling.jfr")
+public class ProfilingProperties {
+
+    private boolean enabled = true;
+    private String settings = "default";
+    private Duration defaultDuration = Duration.ofSeconds(30);
+    private Duration maxDuration = Duration.ofMinutes(5);
+    private Duration collectTimeout = Duration.ofMinutes(1);
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+}
@@ -0,0 +1,16 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "diagnostics.sql-logging")
+public class SqlLoggingProperties {
+
+    private boolean headerEnabled = true;
+    private String header = "X-Debug-Sql";
+    private double sampleRate = 0.0;
+    private int maxRequestsPerSecond = 5;
+}
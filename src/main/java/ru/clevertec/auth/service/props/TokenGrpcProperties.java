@@ -0,0 +1,13 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "grpc.token-service")
+public class TokenGrpcProperties {
+
+    private int maxBatchSize = 100;
+}
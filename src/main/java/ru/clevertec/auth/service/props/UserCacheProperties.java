@@ -0,0 +1,30 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "cache.users")
+public class UserCacheProperties {
+
+    private Spec versions = new Spec(10_000, Duration.ofMinutes(10), null, 0);
+    private Spec snapshots = new Spec(10_000, Duration.ofMinutes(10), Duration.ofMinutes(1), 0.1);
+    private Spec missing = new Spec(100_000, Duration.ofSeconds(30), null, 0);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+
+        private long maximumSize;
+        private Duration expireAfterWrite;
+        private Duration refreshAfterWrite;
+        private double jitter;
+    }
+}
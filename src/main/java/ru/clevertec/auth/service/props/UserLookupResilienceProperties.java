@@ -0,0 +1,24 @@
+package ru.clevertec.auth.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "resilience.user-lookup")
+public class UserLookupResilienceProperties {
+
+    private int slidingWindowSize = 50;
+    private int minimumNumberOfCalls = 20;
+    private float failureRateThreshold = 50;
+    private Duration slowCallDuration = Duration.ofSeconds(1);
+    private float slowCallRateThreshold = 80;
+    private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+    private int permittedCallsInHalfOpenState = 5;
+    private int maxConcurrentCalls = 16;
+    private long lastKnownMaximumSize = 100_000;
+    private Duration lastKnownTtl = Duration.ofHours(1);
+}
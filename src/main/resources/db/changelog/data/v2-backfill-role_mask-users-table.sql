@@ -0,0 +1,14 @@
+update users u
+set role_mask = coalesce((select bit_or(case r.name
+                                            when 'ROLE_ADMIN' then 1
+                                            when 'ROLE_SUBSCRIBER' then 2
+                                            when 'ROLE_JOURNALIST' then 4
+                                        end)
+                          from user_role ur
+                                   join roles r on r.id = ur.role_id
+                          where ur.user_id = u.id), 0)::smallint
+where not exists (select 1
+                  from user_role ur
+                           join roles r on r.id = ur.role_id
+                  where ur.user_id = u.id
+                    and r.name not in ('ROLE_ADMIN', 'ROLE_SUBSCRIBER', 'ROLE_JOURNALIST'));
@@ -0,0 +1,112 @@
+package ru.clevertec.auth.cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import ru.clevertec.auth.AuthServiceApplication;
+import ru.clevertec.auth.cache.invalidation.CacheInvalidationListener;
+import ru.clevertec.auth.entity.dto.user.UserPatchRequest;
+import ru.clevertec.auth.service.UserViewService;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheInvalidationIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:13.3");
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startContexts() {
+        POSTGRES.start();
+        first = startContext();
+        second = startContext();
+    }
+
+    @AfterAll
+    static void stopContexts() {
+        second.close();
+        first.close();
+        POSTGRES.stop();
+    }
+
+    private static ConfigurableApplicationContext startContext() {
+        return new SpringApplicationBuilder(AuthServiceApplication.class)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "server.port=0",
+                        "eureka.client.enabled=false",
+                        "cache.invalidation.poll-timeout=100ms",
+                        "cache.invalidation.reconnect-delay=100ms")
+                .run();
+    }
+
+    @BeforeEach
+    void awaitListeners() {
+        awaitUntil(() -> first.getBean(CacheInvalidationListener.class).isListening()
+                && second.getBean(CacheInvalidationListener.class).isListening());
+    }
+
+    @Test
+    void shouldEvictUserOnOtherInstanceAfterCommit() {
+        // given
+        UserViewService secondService = second.getBean(UserViewService.class);
+        Cache secondVersions = versionsCache(second);
+        long version = secondService.getVersionedUser(1L).version();
+        assertThat(secondVersions.get(1L)).isNotNull();
+
+        // when
+        first.getBean(UserViewService.class).patchUser(1L, new UserPatchRequest("Renamed", null, null), null);
+
+        // then
+        awaitUntil(() -> secondVersions.get(1L) == null);
+        assertThat(secondService.getVersionedUser(1L).version()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void shouldClearLocalCachesWhenListenerConnectionDrops() {
+        // given
+        second.getBean(UserViewService.class).getVersionedUser(1L);
+        Cache secondVersions = versionsCache(second);
+        assertThat(secondVersions.get(1L)).isNotNull();
+
+        // when
+        first.getBean(JdbcTemplate.class).queryForList(
+                "select pg_terminate_backend(pid) from pg_stat_activity where application_name = ?",
+                CacheInvalidationListener.APPLICATION_NAME);
+
+        // then
+        awaitUntil(() -> secondVersions.get(1L) == null);
+        awaitUntil(() -> second.getBean(CacheInvalidationListener.class).isListening());
+    }
+
+    private static Cache versionsCache(ConfigurableApplicationContext context) {
+        return context.getBean(CacheManager.class).getCache(CacheNames.USER_VERSIONS);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within %s", TIMEOUT).isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
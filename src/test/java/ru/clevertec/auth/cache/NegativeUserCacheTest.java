@@ -0,0 +1,41 @@
+package ru.clevertec.auth.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.clevertec.auth.service.props.UserCacheProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeUserCacheTest {
+
+    private final NegativeUserCache negativeUserCache = new NegativeUserCache(new UserCacheProperties());
+
+    @Test
+    void shouldCountOnlyAnsweredLookupsAsSavedQueries() {
+        // given
+        negativeUserCache.markMissing("ghost");
+        negativeUserCache.markMissing(42L);
+
+        // when
+        boolean unknownUsername = negativeUserCache.isMissing("ghost");
+        boolean unknownId = negativeUserCache.isMissing(42L);
+        boolean otherUsername = negativeUserCache.isMissing("someone");
+
+        // then
+        assertThat(unknownUsername).isTrue();
+        assertThat(unknownId).isTrue();
+        assertThat(otherUsername).isFalse();
+        assertThat(negativeUserCache.savedQueries()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldForgetUsernameWhenCacheIsCleared() {
+        // given
+        negativeUserCache.markMissing("ghost");
+
+        // when
+        negativeUserCache.usernameCache().invalidateAll();
+
+        // then
+        assertThat(negativeUserCache.isMissing("ghost")).isFalse();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.clevertec.auth.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserSnapshotCacheTest extends PostgresSQLContainerInitializer {
+
+    private static final int CALLERS = 1000;
+
+    @Autowired
+    private UserSnapshotCache userSnapshotCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheNames.USER_SNAPSHOTS).clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void concurrentMissesShouldShareOneQuery() throws Exception {
+        // given
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch ready = new CountDownLatch(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserSnapshot>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                ready.countDown();
+                start.await();
+                return userSnapshotCache.get(1L);
+            }));
+        }
+        ready.await();
+
+        // when
+        start.countDown();
+        List<UserSnapshot> snapshots = new ArrayList<>();
+        for (Future<UserSnapshot> result : results) {
+            snapshots.add(result.get());
+        }
+        callers.shutdown();
+
+        // then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(snapshots).hasSize(CALLERS).allMatch(snapshot -> snapshot.id() == 1L);
+    }
+
+    @Test
+    void shouldNotCacheMissingUser() {
+        // when
+        Throwable thrown = catchThrowable(() -> userSnapshotCache.get(Long.MAX_VALUE));
+
+        // then
+        assertThat(thrown).isInstanceOf(EntityNotFoundException.class);
+        assertThat(cacheManager.getCache(CacheNames.USER_SNAPSHOTS).get(Long.MAX_VALUE)).isNull();
+    }
+}
@@ -0,0 +1,89 @@
+package ru.clevertec.auth.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.auth.security.JwtEntity;
+import ru.clevertec.auth.service.props.CredentialCacheProperties;
+import ru.clevertec.auth.service.props.JwtProperties;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedCredentialCacheTest {
+
+    private static final String HASH = "$2a$10$XkCSKhDyelpnwjrSGaXwCONG6vqDdrw4tqkFSjkX2oX5EOLAVOobS";
+
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @BeforeEach
+    void setUp() {
+        CredentialCacheProperties properties = new CredentialCacheProperties();
+        properties.setEnabled(true);
+        properties.setClients(Set.of("batch"));
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("dGhpcyBpcyBhIHRlc3Qgc2VjcmV0IGZvciB0aGUgY3JlZGVudGlhbCBjYWNoZQ==");
+        verifiedCredentialCache = new VerifiedCredentialCache(properties, jwtProperties);
+    }
+
+    @Test
+    void shouldAnswerRepeatedCheckOfVerifiedCredentials() {
+        // given
+        verifiedCredentialCache.remember(user(1L, "batch", HASH), "secret");
+
+        // when
+        boolean samePassword = verifiedCredentialCache.isVerified(user(1L, "batch", HASH), "secret");
+        boolean otherPassword = verifiedCredentialCache.isVerified(user(1L, "batch", HASH), "other");
+
+        // then
+        assertThat(samePassword).isTrue();
+        assertThat(otherPassword).isFalse();
+        assertThat(verifiedCredentialCache.savedChecks()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheCredentialsOfOtherUsers() {
+        // given
+        verifiedCredentialCache.remember(user(2L, "person", HASH), "secret");
+
+        // when
+        boolean verified = verifiedCredentialCache.isVerified(user(2L, "person", HASH), "secret");
+
+        // then
+        assertThat(verified).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreCredentialsVerifiedAgainstPreviousPasswordHash() {
+        // given
+        verifiedCredentialCache.remember(user(1L, "batch", HASH), "secret");
+
+        // when
+        boolean verified = verifiedCredentialCache.isVerified(user(1L, "batch", HASH + "changed"), "secret");
+
+        // then
+        assertThat(verified).isFalse();
+    }
+
+    @Test
+    void shouldForgetCredentialsOfChangedUser() {
+        // given
+        verifiedCredentialCache.remember(user(1L, "batch", HASH), "secret");
+
+        // when
+        verifiedCredentialCache.forget(1L);
+
+        // then
+        assertThat(verifiedCredentialCache.isVerified(user(1L, "batch", HASH), "secret")).isFalse();
+    }
+
+    private JwtEntity user(Long id, String username, String password) {
+        return JwtEntity.builder()
+                .id(id)
+                .username(username)
+                .password(password)
+                .authorities(List.of())
+                .build();
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
@@ -22,7 +23,11 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -101,4 +106,30 @@ class AuthControllerTest extends PostgresSQLContainerInitializer {
                         .content(token))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void shouldCheckTokenFromAuthorizationHeader() throws Exception {
+        String token = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJUZXN0IHVzZXJOYW1lIiwiaW" +
+                "QiOjEsImV4cCI6MjIzOTUwNTA5NDE1MTQyfQ.09CZD97fSbHnashAD4B0AKeaY4" +
+                "kDE1pUToG-yOriMIvye9pRtdIOD6XzaZnbrVHwCnhlnjERlEcfXc6VN7xY6A";
+        JwtResponse jwtResponse = JwtResponseBuilderTest.aJwtResponse().build();
+
+        mockMvc.perform(head("/auth/check")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AuthControllerImpl.USER_ID_HEADER, "1"))
+                .andExpect(header().string(AuthControllerImpl.USER_UUID_HEADER, jwtResponse.getUuid().toString()))
+                .andExpect(header().exists(AuthControllerImpl.USER_ROLES_HEADER))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, private"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldRejectCheckWithInvalidToken() throws Exception {
+        mockMvc.perform(get("/auth/check")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(header().exists(HttpHeaders.WWW_AUTHENTICATE));
+    }
 }
@@ -0,0 +1,103 @@
+package ru.clevertec.auth.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.util.JwtRequestBuilderTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks how the endpoints fetch data: which of them may load entities or initialize collections.
+ * Statement counts are budgeted in {@link ru.clevertec.auth.sql.SqlBudgetTest}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class StatementCountTest extends PostgresSQLContainerInitializer {
+
+    private static final String TOKEN = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJUZXN0IHVzZXJOYW1lIiwiaW" +
+            "QiOjEsImV4cCI6MjIzOTUwNTA5NDE1MTQyfQ.09CZD97fSbHnashAD4B0AKeaY4" +
+            "kDE1pUToG-yOriMIvye9pRtdIOD6XzaZnbrVHwCnhlnjERlEcfXc6VN7xY6A";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getUserByIdShouldNotLoadEntity() throws Exception {
+        // when
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void validateShouldReadRolesWithoutJoin() throws Exception {
+        // when
+        mockMvc.perform(post("/auth/validate")
+                        .contentType(APPLICATION_JSON)
+                        .content(TOKEN))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void refreshShouldReadRolesWithoutJoin() throws Exception {
+        // when
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(APPLICATION_JSON)
+                        .content(TOKEN))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void loginShouldNotFetchRolesSeparately() throws Exception {
+        // given
+        String json = "{\"username\":\"" + JwtRequestBuilderTest.aJwtRequest().build().getUsername()
+                + "\",\"password\":\"100\"}";
+
+        // when
+        mockMvc.perform(post("/auth/login")
+                        .contentType(APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+}
@@ -4,9 +4,12 @@ import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -54,6 +57,38 @@ class UserControllerTest extends PostgresSQLContainerInitializer {
     }
 
 
+    @Test
+    void shouldRejectIdempotencyKeyReusedWithDifferentPassword() throws Exception {
+        UserRequest newUser = UserRequestBuilderTest.aUserRequest().withUserName("IdempotentUser").build();
+        UserRequest otherPassword = new UserRequest(newUser.name(), newUser.username(), "other", "other");
+        JsonMapper jsonMapper = JsonMapper.builder().disable(MapperFeature.USE_ANNOTATIONS).build();
+        String first = mockMvc.perform(MockMvcRequestBuilders.post("/users")
+                        .header("Idempotency-Key", "create-idempotent-user")
+                        .contentType(APPLICATION_JSON)
+                        .content(jsonMapper.writeValueAsString(newUser))
+                        .param("role", "ROLE_ADMIN"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String retry = mockMvc.perform(MockMvcRequestBuilders.post("/users")
+                        .header("Idempotency-Key", "create-idempotent-user")
+                        .contentType(APPLICATION_JSON)
+                        .content(jsonMapper.writeValueAsString(newUser))
+                        .param("role", "ROLE_ADMIN"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(MockMvcRequestBuilders.post("/users")
+                        .header("Idempotency-Key", "create-idempotent-user")
+                        .contentType(APPLICATION_JSON)
+                        .content(jsonMapper.writeValueAsString(otherPassword))
+                        .param("role", "ROLE_ADMIN"))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(objectMapper.readValue(retry, UserResponse.class))
+                .isEqualTo(objectMapper.readValue(first, UserResponse.class));
+    }
+
+
     @Test
     void shouldUpdateUser() throws Exception {
         UserRequest updatedUser = UserRequestBuilderTest.aUserRequest().withUserName("Update").build();
@@ -73,6 +108,51 @@ class UserControllerTest extends PostgresSQLContainerInitializer {
     }
 
 
+    @Test
+    void shouldPatchUser() throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\":\"Patched name\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        UserResponse actual = objectMapper.readValue(response, UserResponse.class);
+
+        assertThat(actual.id()).isEqualTo(1L);
+        assertThat(actual.name()).isEqualTo("Patched name");
+        assertThat(actual.username()).isEqualTo("Test userName");
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {"{\"name\":\"\"}", "{\"username\":\" \"}", "{\"password\":\"\"}"})
+    void shouldRejectPatchWithBlankMember(String patch) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
+                        .contentType("application/merge-patch+json")
+                        .content(patch))
+                .andExpect(status().isBadRequest());
+    }
+
+
+    @Test
+    void shouldReturnNewEtagThatMatchesOnNextPatch() throws Exception {
+        String etag = mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\":\"First patch\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String nextEtag = mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\":\"Second patch\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isNotNull();
+        assertThat(nextEtag).isNotNull().isNotEqualTo(etag);
+    }
+
+
     @Test
     void shouldGetUserById() throws Exception {
         long userId = 1L;
@@ -89,6 +169,32 @@ class UserControllerTest extends PostgresSQLContainerInitializer {
     }
 
 
+    @Test
+    void shouldReturnNotModifiedWhenEtagMatches() throws Exception {
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/users/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/users/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+
+    @Test
+    void shouldRejectUpdateWhenIfMatchIsStale() throws Exception {
+        UserRequest updatedUser = UserRequestBuilderTest.aUserRequest().build();
+        JsonMapper jsonMapper = JsonMapper.builder().disable(MapperFeature.USE_ANNOTATIONS).build();
+        String json = jsonMapper.writeValueAsString(updatedUser);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"999\"")
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(json))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+
     @Test
     void shouldArchiveUserById() throws Exception {
         long userId = 1L;
@@ -0,0 +1,191 @@
+package ru.clevertec.auth.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.clevertec.auth.event.UserChangedEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicationRoutingDataSourceTest {
+
+    @Mock
+    private ReplicaDataSources replicas;
+
+    private ReadYourWritesTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        given(replicas.names()).willReturn(List.of("replica-1", "replica-2"));
+        tracker = new ReadYourWritesTracker(Duration.ofMinutes(1), 100, "X-Client-Session");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldRouteWritesToPrimary() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, true);
+
+        // when
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo(ReplicationRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplicasInTurn() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, true);
+        given(replicas.isAvailable("replica-1")).willReturn(true);
+        given(replicas.isAvailable("replica-2")).willReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object first = dataSource.determineCurrentLookupKey();
+        Object second = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(List.of(first, second)).containsExactly("replica-1", "replica-2");
+    }
+
+    @Test
+    void shouldSkipUnavailableReplica() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, true);
+        given(replicas.isAvailable("replica-1")).willReturn(false);
+        given(replicas.isAvailable("replica-2")).willReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo("replica-2");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenNoReplicaIsAvailable() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo(ReplicationRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void shouldKeepUsingReplicasWhenFallbackIsDisabled() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo("replica-1");
+    }
+
+    @Test
+    void shouldPinReadsOfWriterToPrimaryAfterWrite() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        authenticateAs("admin");
+        tracker.onUserChanged(new UserChangedEvent(1L, UserChangedEvent.Type.UPDATED));
+
+        // when
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo(ReplicationRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void shouldKeepReadsOfOtherClientsOnReplicasAfterWrite() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, true);
+        given(replicas.isAvailable("replica-1")).willReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        authenticateAs("admin");
+        tracker.onUserChanged(new UserChangedEvent(1L, UserChangedEvent.Type.UPDATED));
+
+        // when
+        authenticateAs("reader");
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo("replica-1");
+    }
+
+    @Test
+    void shouldPinAnonymousReadsOfSameSessionToPrimaryAfterWrite() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        requestFrom("10.0.0.1", "session-1");
+        tracker.onUserChanged(new UserChangedEvent(1L, UserChangedEvent.Type.CREATED));
+
+        // when
+        requestFrom("10.0.0.1", "session-1");
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo(ReplicationRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void shouldKeepReadsOfOtherClientsBehindSameAddressOnReplicasAfterWrite() {
+        // given
+        ReplicationRoutingDataSource dataSource = new ReplicationRoutingDataSource(replicas, tracker, true);
+        given(replicas.isAvailable("replica-1")).willReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        requestFrom("10.0.0.1", "session-1");
+        tracker.onUserChanged(new UserChangedEvent(1L, UserChangedEvent.Type.CREATED));
+
+        // when
+        requestFrom("10.0.0.1", null);
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(key).isEqualTo("replica-1");
+    }
+
+    private static void requestFrom(String address, String session) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        if (session != null) {
+            request.addHeader("X-Client-Session", session);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static void authenticateAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken(username, null, "ROLE_ADMIN"));
+    }
+}
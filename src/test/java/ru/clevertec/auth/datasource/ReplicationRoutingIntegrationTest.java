@@ -0,0 +1,120 @@
+package ru.clevertec.auth.datasource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.wait.strategy.Wait;
+import ru.clevertec.auth.entity.dto.user.UserRequest;
+import ru.clevertec.auth.service.UserViewService;
+import ru.clevertec.auth.util.UserRequestBuilderTest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "datasource.routing.enabled=true",
+        "datasource.routing.sticky-window=1m",
+        "datasource.routing.health-check-interval=1s"
+})
+class ReplicationRoutingIntegrationTest {
+
+    private static final String IMAGE = "bitnami/postgresql:13.3.0";
+    private static final Network NETWORK = Network.newNetwork();
+
+    private static final GenericContainer<?> PRIMARY = new GenericContainer<>(IMAGE)
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withEnv("POSTGRESQL_REPLICATION_MODE", "master")
+            .withEnv("POSTGRESQL_REPLICATION_USER", "replicator")
+            .withEnv("POSTGRESQL_REPLICATION_PASSWORD", "replicator")
+            .withEnv("POSTGRESQL_USERNAME", "test")
+            .withEnv("POSTGRESQL_PASSWORD", "test")
+            .withEnv("POSTGRESQL_DATABASE", "test")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    private static final GenericContainer<?> REPLICA = new GenericContainer<>(IMAGE)
+            .withNetwork(NETWORK)
+            .withEnv("POSTGRESQL_REPLICATION_MODE", "slave")
+            .withEnv("POSTGRESQL_REPLICATION_USER", "replicator")
+            .withEnv("POSTGRESQL_REPLICATION_PASSWORD", "replicator")
+            .withEnv("POSTGRESQL_MASTER_HOST", "primary")
+            .withEnv("POSTGRESQL_MASTER_PORT_NUMBER", "5432")
+            .withEnv("POSTGRESQL_PASSWORD", "test")
+            .withExposedPorts(5432)
+            .dependsOn(PRIMARY)
+            .waitingFor(Wait.forLogMessage(".*started streaming WAL.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserViewService userService;
+
+    @BeforeAll
+    static void startContainers() {
+        REPLICA.start();
+    }
+
+    @DynamicPropertySource
+    private static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> jdbcUrl(PRIMARY));
+        registry.add("datasource.routing.replicas[0].name", () -> "replica-1");
+        registry.add("datasource.routing.replicas[0].url", () -> jdbcUrl(REPLICA));
+    }
+
+    private static String jdbcUrl(GenericContainer<?> container) {
+        return "jdbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(5432) + "/test";
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplicaAndPinThoseOfWriterToPrimary() {
+        // given
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        UserRequest request = UserRequestBuilderTest.aUserRequest().withUserName("replicated").build();
+
+        // when
+        Boolean readOnlyOnReplica = readOnly.execute(status -> isInRecovery());
+        Boolean readWriteOnReplica = readWrite.execute(status -> isInRecovery());
+        Boolean writerReadOnReplica;
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"));
+        try {
+            userService.createWithRoleSubscriber(request);
+            writerReadOnReplica = readOnly.execute(status -> isInRecovery());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        Boolean otherReadOnReplica = readOnly.execute(status -> isInRecovery());
+
+        // then
+        assertThat(readOnlyOnReplica).isTrue();
+        assertThat(readWriteOnReplica).isFalse();
+        assertThat(writerReadOnReplica).isFalse();
+        assertThat(otherReadOnReplica).isTrue();
+    }
+
+    private Boolean isInRecovery() {
+        return jdbcTemplate.queryForObject("select pg_is_in_recovery()", Boolean.class);
+    }
+}
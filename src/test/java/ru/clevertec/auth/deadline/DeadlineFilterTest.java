@@ -0,0 +1,88 @@
+package ru.clevertec.auth.deadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.clevertec.auth.service.props.DeadlineProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class DeadlineFilterTest {
+
+    private final DeadlineProperties properties = new DeadlineProperties();
+
+    private final DeadlineFilter filter = new DeadlineFilter(properties, new SimpleMeterRegistry());
+
+    @Test
+    void shouldDropRequestWhoseDeadlineHasPassed() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.addHeader(properties.getDeadlineHeader(), String.valueOf(System.currentTimeMillis() - 1_000));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<Object> calls = new ArrayList<>();
+
+        // when
+        filter.doFilter(request, response, (req, res) -> calls.add(req));
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(504);
+        assertThat(calls).isEmpty();
+    }
+
+    @Test
+    void shouldBindClientTimeoutOnlyWhileRequestIsProcessed() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/register");
+        request.addHeader(properties.getTimeoutHeader(), "200m");
+        List<Optional<Deadline>> deadlines = new ArrayList<>();
+
+        // when
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> deadlines.add(Deadline.current()));
+
+        // then
+        assertThat(deadlines).singleElement()
+                .satisfies(deadline -> assertThat(deadline.orElseThrow().remaining())
+                        .isLessThanOrEqualTo(Duration.ofMillis(200)));
+        assertThat(Deadline.current()).isEmpty();
+    }
+
+    @Test
+    void shouldNotLetClientExtendEndpointBudget() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/validate");
+        request.addHeader(properties.getTimeoutHeader(), "10S");
+        List<Optional<Deadline>> deadlines = new ArrayList<>();
+
+        // when
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> deadlines.add(Deadline.current()));
+
+        // then
+        assertThat(deadlines).singleElement()
+                .satisfies(deadline -> assertThat(deadline.orElseThrow().remaining())
+                        .isLessThanOrEqualTo(Duration.ofMillis(500)));
+    }
+
+    @Test
+    void shouldStopExpensiveStepOnceDeadlineHasPassed() {
+        // given
+        Deadline deadline = Deadline.after(Duration.ZERO);
+
+        // when
+        Throwable thrown;
+        try (Deadline.Scope ignored = deadline.bind()) {
+            thrown = catchThrowable(() -> Deadline.check("password check"));
+        }
+
+        // then
+        assertThat(thrown).isInstanceOf(DeadlineExceededException.class)
+                .hasMessageContaining("password check");
+        assertThat(Deadline.current()).isEmpty();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.clevertec.auth.deadline;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DeadlineQueryTimeoutTest extends PostgresSQLContainerInitializer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldCancelQueryOnceRequestDeadlinePasses() {
+        // given
+        Deadline deadline = Deadline.after(Duration.ofMillis(300));
+        long start = System.nanoTime();
+
+        // when
+        Throwable thrown;
+        try (Deadline.Scope ignored = deadline.bind()) {
+            thrown = catchThrowable(() -> jdbcTemplate.execute("select pg_sleep(5)"));
+        }
+
+        // then
+        assertThat(thrown).isInstanceOf(DataAccessException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void shouldNotStartQueryOnceRequestDeadlineHasPassed() {
+        // given
+        Deadline deadline = Deadline.after(Duration.ZERO);
+
+        // when
+        Throwable thrown;
+        try (Deadline.Scope ignored = deadline.bind()) {
+            thrown = catchThrowable(() -> jdbcTemplate.queryForObject("select 1", Integer.class));
+        }
+
+        // then
+        assertThat(thrown).isInstanceOf(DeadlineExceededException.class);
+    }
+}
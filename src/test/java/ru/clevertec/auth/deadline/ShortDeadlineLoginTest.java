@@ -0,0 +1,87 @@
+package ru.clevertec.auth.deadline;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.resilience.UserLookupGuard;
+import ru.clevertec.auth.util.JwtRequestBuilderTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Holds a lock on the users table, so the lookup of a login runs past a short client deadline and
+ * is cancelled by the database, and checks that this is answered as a passed deadline.
+ * Requests run in their own transactions, so a cancelled query does not abort the next one.
+ */
+@SpringBootTest(properties = {
+        "audit.login.enabled=false",
+        "resilience.user-lookup.sliding-window-size=2",
+        "resilience.user-lookup.minimum-number-of-calls=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShortDeadlineLoginTest extends PostgresSQLContainerInitializer {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserLookupGuard userLookupGuard;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void shouldAnswerLookupCancelledAtClientDeadlineWith504AndKeepBreakerClosed() throws Exception {
+        // given
+        String json = "{\"username\":\"" + JwtRequestBuilderTest.aJwtRequest().build().getUsername()
+                + "\",\"password\":\"100\"}";
+        List<Integer> statuses = new ArrayList<>();
+
+        // when
+        try (Connection locker = dataSource.getConnection()) {
+            locker.setAutoCommit(false);
+            try (Statement statement = locker.createStatement()) {
+                statement.execute("lock table users in access exclusive mode");
+            }
+            for (int i = 0; i < 3; i++) {
+                statuses.add(mockMvc.perform(post("/auth/login")
+                                .header("X-Request-Timeout", "300m")
+                                .contentType(APPLICATION_JSON)
+                                .content(json))
+                        .andReturn().getResponse().getStatus());
+            }
+            locker.rollback();
+        }
+
+        // then
+        assertThat(statuses).containsOnly(504);
+        assertThat(userLookupGuard.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,174 @@
+package ru.clevertec.auth.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.deadline.DeadlineExceededException;
+import ru.clevertec.auth.grpc.proto.BatchValidateRequest;
+import ru.clevertec.auth.grpc.proto.BatchValidateResponse;
+import ru.clevertec.auth.grpc.proto.JwtResponse;
+import ru.clevertec.auth.grpc.proto.RefreshRequest;
+import ru.clevertec.auth.grpc.proto.TokenServiceGrpc;
+import ru.clevertec.auth.grpc.proto.ValidateRequest;
+import ru.clevertec.auth.grpc.proto.ValidateResult;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
+import ru.clevertec.auth.service.AuthService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.BDDMockito.willThrow;
+
+@SpringBootTest(properties = {
+        "grpc.server.in-process-name=token-grpc-test",
+        "grpc.client.inProcess.address=in-process:token-grpc-test",
+        "grpc.token-service.max-batch-size=2"
+})
+@ActiveProfiles("test")
+class TokenGrpcServiceTest extends PostgresSQLContainerInitializer {
+
+    private static final String TOKEN = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJUZXN0IHVzZXJOYW1lIiwiaW" +
+            "QiOjEsImV4cCI6MjIzOTUwNTA5NDE1MTQyfQ.09CZD97fSbHnashAD4B0AKeaY4" +
+            "kDE1pUToG-yOriMIvye9pRtdIOD6XzaZnbrVHwCnhlnjERlEcfXc6VN7xY6A";
+
+    @SpyBean
+    private AuthService authService;
+
+    @GrpcClient("inProcess")
+    private TokenServiceGrpc.TokenServiceBlockingStub blockingStub;
+
+    @GrpcClient("inProcess")
+    private TokenServiceGrpc.TokenServiceStub asyncStub;
+
+    @Test
+    void shouldValidateToken() {
+        // when
+        JwtResponse response = blockingStub.validate(ValidateRequest.newBuilder().setToken(TOKEN).build());
+
+        // then
+        assertThat(response.getId()).isEqualTo(1L);
+        assertThat(response.getUsername()).isEqualTo("Test userName");
+        assertThat(response.getAccessToken()).isEqualTo(TOKEN);
+    }
+
+    @Test
+    void shouldFailWithUnauthenticatedForInvalidToken() {
+        // when
+        StatusRuntimeException thrown = catchThrowableOfType(
+                () -> blockingStub.validate(ValidateRequest.newBuilder().setToken("not-a-token").build()),
+                StatusRuntimeException.class);
+
+        // then
+        assertThat(thrown.getStatus().getCode()).isEqualTo(Status.Code.UNAUTHENTICATED);
+    }
+
+    @Test
+    void shouldReportEveryTokenOfBatch() {
+        // given
+        BatchValidateRequest request = BatchValidateRequest.newBuilder()
+                .addRequests(ValidateRequest.newBuilder().setToken(TOKEN).setCorrelationId("a"))
+                .addRequests(ValidateRequest.newBuilder().setToken("not-a-token").setCorrelationId("b"))
+                .build();
+
+        // when
+        BatchValidateResponse response = blockingStub.batchValidate(request);
+
+        // then
+        assertThat(response.getResultsList()).extracting(ValidateResult::getCorrelationId).containsExactly("a", "b");
+        assertThat(response.getResultsList()).extracting(ValidateResult::getValid).containsExactly(true, false);
+        assertThat(response.getResultsList()).extracting(ValidateResult::getStatus)
+                .containsExactly("", Status.Code.UNAUTHENTICATED.name());
+    }
+
+    @Test
+    void shouldReportLookupFailuresPerTokenOfBatch() {
+        // given
+        willThrow(new UserLookupUnavailableException(new IllegalStateException("database down")))
+                .given(authService).validate("unavailable-token");
+        willThrow(new DeadlineExceededException("user lookup"))
+                .given(authService).validate("late-token");
+        BatchValidateRequest request = BatchValidateRequest.newBuilder()
+                .addRequests(ValidateRequest.newBuilder().setToken("unavailable-token").setCorrelationId("a"))
+                .addRequests(ValidateRequest.newBuilder().setToken("late-token").setCorrelationId("b"))
+                .build();
+
+        // when
+        BatchValidateResponse response = blockingStub.batchValidate(request);
+
+        // then
+        assertThat(response.getResultsList()).extracting(ValidateResult::getValid).containsExactly(false, false);
+        assertThat(response.getResultsList()).extracting(ValidateResult::getStatus)
+                .containsExactly(Status.Code.UNAVAILABLE.name(), Status.Code.DEADLINE_EXCEEDED.name());
+    }
+
+    @Test
+    void shouldRejectBatchLargerThanMaxSize() {
+        // given
+        BatchValidateRequest.Builder request = BatchValidateRequest.newBuilder();
+        for (int i = 0; i < 3; i++) {
+            request.addRequests(ValidateRequest.newBuilder().setToken(TOKEN).setCorrelationId(String.valueOf(i)));
+        }
+
+        // when
+        StatusRuntimeException thrown = catchThrowableOfType(
+                () -> blockingStub.batchValidate(request.build()), StatusRuntimeException.class);
+
+        // then
+        assertThat(thrown.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+    }
+
+    @Test
+    void shouldValidatePipelinedTokensOverOneStream() throws Exception {
+        // given
+        List<ValidateResult> results = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        StreamObserver<ValidateRequest> requests = asyncStub.validateStream(new StreamObserver<>() {
+            @Override
+            public void onNext(ValidateResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.complete(null);
+            }
+        });
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            requests.onNext(ValidateRequest.newBuilder().setToken(TOKEN).setCorrelationId(String.valueOf(i)).build());
+        }
+        requests.onCompleted();
+        completed.get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(results).hasSize(100).allMatch(ValidateResult::getValid);
+        assertThat(results.get(99).getCorrelationId()).isEqualTo("99");
+    }
+
+    @Test
+    void shouldRefreshTokens() {
+        // when
+        JwtResponse response = blockingStub.refresh(RefreshRequest.newBuilder().setRefreshToken(TOKEN).build());
+
+        // then
+        assertThat(response.getId()).isEqualTo(1L);
+        assertThat(response.getAccessToken()).isNotBlank();
+        assertThat(response.getRefreshToken()).isNotBlank();
+    }
+}
@@ -0,0 +1,131 @@
+package ru.clevertec.auth.grpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.grpc.proto.TokenServiceGrpc;
+import ru.clevertec.auth.grpc.proto.ValidateRequest;
+import ru.clevertec.auth.grpc.proto.ValidateResult;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares token validation over REST (HTTP/1.1 + JSON) with unary and streamed gRPC calls.
+ * Not part of the regular build; run with {@code AUTH_BENCHMARK=true ./gradlew test --tests '*Benchmark*'}.
+ */
+@Slf4j
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"grpc.server.port=19091", "audit.login.enabled=false"})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "AUTH_BENCHMARK", matches = "true")
+class ValidateTransportBenchmarkTest extends PostgresSQLContainerInitializer {
+
+    private static final String TOKEN = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJUZXN0IHVzZXJOYW1lIiwiaW" +
+            "QiOjEsImV4cCI6MjIzOTUwNTA5NDE1MTQyfQ.09CZD97fSbHnashAD4B0AKeaY4" +
+            "kDE1pUToG-yOriMIvye9pRtdIOD6XzaZnbrVHwCnhlnjERlEcfXc6VN7xY6A";
+    private static final int WARMUP = 5_000;
+    private static final int CALLS = 20_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void compareRestAndGrpc() throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest restRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/validate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(TOKEN))
+                .build();
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", 19091).usePlaintext().build();
+        try {
+            TokenServiceGrpc.TokenServiceBlockingStub blockingStub = TokenServiceGrpc.newBlockingStub(channel);
+            TokenServiceGrpc.TokenServiceStub asyncStub = TokenServiceGrpc.newStub(channel);
+            ValidateRequest grpcRequest = ValidateRequest.newBuilder().setToken(TOKEN).build();
+
+            Runnable rest = () -> {
+                try {
+                    assertThat(httpClient.send(restRequest, HttpResponse.BodyHandlers.ofString()).statusCode())
+                            .isEqualTo(200);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+            Runnable unary = () -> blockingStub.validate(grpcRequest);
+
+            measure(rest, WARMUP);
+            report("REST  /auth/validate", measure(rest, CALLS), CALLS);
+            measure(unary, WARMUP);
+            report("gRPC  Validate", measure(unary, CALLS), CALLS);
+            stream(asyncStub, grpcRequest, WARMUP);
+            report("gRPC  ValidateStream", stream(asyncStub, grpcRequest, CALLS), CALLS);
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static long measure(Runnable call, int times) {
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            call.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long stream(TokenServiceGrpc.TokenServiceStub stub, ValidateRequest request, int times)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger results = new AtomicInteger();
+        long start = System.nanoTime();
+        StreamObserver<ValidateRequest> requests = stub.validateStream(new StreamObserver<>() {
+            @Override
+            public void onNext(ValidateResult result) {
+                results.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                failure.set(t);
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        });
+        for (int i = 0; i < times; i++) {
+            requests.onNext(request);
+        }
+        requests.onCompleted();
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        long nanos = System.nanoTime() - start;
+        assertThat(failure.get()).isNull();
+        assertThat(results.get()).isEqualTo(times);
+        return nanos;
+    }
+
+    private static void report(String name, long nanos, int calls) {
+        log.info(String.format("%-22s %,10.0f calls/s %8.1f us/call", name, calls * 1e9 / nanos, nanos / 1e3 / calls));
+    }
+}
@@ -0,0 +1,186 @@
+package ru.clevertec.auth.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long VALIDATION = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long PASSWORD_CHECK = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void shouldRejectRequestsOverLimit() {
+        // given
+        Lane lane = new Lane("default", 1.0);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new GradientLimit(3, 1, 10, 0.2, 1.5, 600), List.of(lane));
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(lane).ifPresent(permits::add);
+        }
+
+        // then
+        assertThat(permits).hasSize(3);
+        assertThat(lane.getRejected()).isEqualTo(2);
+        permits.forEach(ConcurrencyLimiter.Permit::ignore);
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(lane.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldKeepShareOfHigherLaneFreeDuringLowerLaneStorm() {
+        // given
+        Lane validation = new Lane("validation", 0.5);
+        Lane credentials = new Lane("credentials", 0.5);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+                new GradientLimit(10, 1, 10, 0.2, 1.5, 600), List.of(validation, credentials));
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(credentials).ifPresent(permits::add);
+        }
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(validation).ifPresent(permits::add);
+        }
+
+        // then
+        assertThat(credentials.getInFlight()).isEqualTo(5);
+        assertThat(credentials.getRejected()).isEqualTo(5);
+        assertThat(validation.getInFlight()).isEqualTo(5);
+        assertThat(validation.getRejected()).isZero();
+        permits.forEach(ConcurrencyLimiter.Permit::ignore);
+    }
+
+    @Test
+    void shouldLetHigherLaneBorrowIdleCapacityOfLowerLane() {
+        // given
+        Lane validation = new Lane("validation", 0.5);
+        Lane credentials = new Lane("credentials", 0.5);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+                new GradientLimit(10, 1, 10, 0.2, 1.5, 600), List.of(validation, credentials));
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 12; i++) {
+            limiter.tryAcquire(validation).ifPresent(permits::add);
+        }
+
+        // then
+        assertThat(validation.getInFlight()).isEqualTo(10);
+        assertThat(validation.getRejected()).isEqualTo(2);
+        assertThat(limiter.tryAcquire(credentials)).isEmpty();
+        permits.forEach(ConcurrencyLimiter.Permit::ignore);
+    }
+
+    @Test
+    void shouldGrowLimitWhileLatencyIsSteady() {
+        // given
+        GradientLimit limit = new GradientLimit(20, 4, 200, 0.2, 1.5, 600);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, limit.getLimit());
+        }
+
+        // then
+        assertThat(limit.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void shouldShrinkLimitWhenLatencyClimbs() {
+        // given
+        GradientLimit limit = new GradientLimit(50, 4, 200, 0.2, 1.5, 600);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, limit.getLimit());
+        }
+        int before = limit.getLimit();
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(SLOW, limit.getLimit());
+        }
+
+        // then
+        assertThat(limit.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void shouldKeepLimitDuringLoginStormWhenLanesHaveOwnBaselines() {
+        // given
+        GradientLimit limit = new GradientLimit(50, 4, 200, 0.2, 1.5, 600);
+        GradientLimit.Baseline validation = limit.newBaseline();
+        GradientLimit.Baseline credentials = limit.newBaseline();
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(VALIDATION, validation, limit.getLimit());
+        }
+
+        // when
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(PASSWORD_CHECK, credentials, limit.getLimit());
+            limit.onSample(VALIDATION, validation, limit.getLimit());
+        }
+
+        // then
+        assertThat(limit.getLimit()).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void shouldCollapseLimitDuringLoginStormWithSharedBaseline() {
+        // given
+        GradientLimit limit = new GradientLimit(50, 4, 200, 0.2, 1.5, 600);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(VALIDATION, limit.getLimit());
+        }
+
+        // when
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(PASSWORD_CHECK, limit.getLimit());
+            limit.onSample(VALIDATION, limit.getLimit());
+        }
+
+        // then
+        assertThat(limit.getLimit()).isLessThan(20);
+    }
+
+    @Test
+    void shouldShrinkLimitWhenLatencyOfLaneClimbs() {
+        // given
+        GradientLimit limit = new GradientLimit(50, 4, 200, 0.2, 1.5, 600);
+        GradientLimit.Baseline credentials = limit.newBaseline();
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(PASSWORD_CHECK, credentials, limit.getLimit());
+        }
+        int before = limit.getLimit();
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(PASSWORD_CHECK * 4, credentials, limit.getLimit());
+        }
+
+        // then
+        assertThat(limit.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void shouldIgnoreSamplesWhenLimitIsNotUsed() {
+        // given
+        GradientLimit limit = new GradientLimit(50, 4, 200, 0.2, 1.5, 600);
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(SLOW, 1);
+        }
+
+        // then
+        assertThat(limit.getLimit()).isEqualTo(50);
+    }
+}
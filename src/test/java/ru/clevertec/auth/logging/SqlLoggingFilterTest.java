@@ -0,0 +1,52 @@
+package ru.clevertec.auth.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.clevertec.auth.service.props.SqlLoggingProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlLoggingFilterTest {
+
+    private final SqlLoggingProperties properties = new SqlLoggingProperties();
+
+    private final SqlLoggingFilter filter = new SqlLoggingFilter(properties);
+
+    @Test
+    void shouldMarkRequestCarryingHeaderOnlyWhileItIsProcessed() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(properties.getHeader(), "true");
+        List<String> marks = new ArrayList<>();
+
+        // when
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> marks.add(MDC.get(SqlLoggingTurboFilter.MDC_KEY)));
+
+        // then
+        assertThat(marks).containsExactly("true");
+        assertThat(MDC.get(SqlLoggingTurboFilter.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void shouldNotMarkMoreRequestsThanBudgetPerSecond() throws Exception {
+        // given
+        properties.setMaxRequestsPerSecond(2);
+        properties.setSampleRate(1.0);
+        List<String> marks = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                    (req, res) -> marks.add(MDC.get(SqlLoggingTurboFilter.MDC_KEY)));
+        }
+
+        // then
+        assertThat(marks).filteredOn("true"::equals).hasSizeLessThanOrEqualTo(2).isNotEmpty();
+    }
+}
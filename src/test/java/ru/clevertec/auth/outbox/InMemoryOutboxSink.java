@@ -0,0 +1,36 @@
+package ru.clevertec.auth.outbox;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Sink keeping the published events in memory, used by the tests.
+ *
+ * @author Sergey Leshkevich
+ * @version 1.0
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxMessage> messages = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        messages.addAll(batch);
+    }
+
+    /**
+     * Returns the events published so far.
+     *
+     * @return the published events in publication order.
+     */
+    public List<OutboxMessage> messages() {
+        return List.copyOf(messages);
+    }
+
+    /**
+     * Forgets the events published so far.
+     */
+    public void clear() {
+        messages.clear();
+    }
+}
@@ -0,0 +1,132 @@
+package ru.clevertec.auth.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.entity.dto.user.UserRequest;
+import ru.clevertec.auth.entity.dto.user.UserResponse;
+import ru.clevertec.auth.service.UserViewService;
+import ru.clevertec.auth.util.UserRequestBuilderTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest(properties = {
+        "outbox.relay.enabled=true",
+        "outbox.relay.poll-interval=1h",
+        "outbox.relay.retention=0s",
+        "outbox.sink.webhook-url=http://localhost:9/unused"
+})
+@Import(UserOutboxIntegrationTest.InMemorySinkConfiguration.class)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserOutboxIntegrationTest extends PostgresSQLContainerInitializer {
+
+    @Autowired
+    private UserViewService userService;
+
+    @Autowired
+    private UserOutboxRelay userOutboxRelay;
+
+    @Autowired
+    private OutboxSink outboxSink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        userOutboxRelay.relay();
+        ((InMemoryOutboxSink) outboxSink).clear();
+    }
+
+    @Test
+    void shouldPublishChangesInCommitOrderAndPruneThem() throws Exception {
+        // given
+        UserRequest request = UserRequestBuilderTest.aUserRequest().withUserName("outbox_user").build();
+        UserResponse created = userService.createWithRoleSubscriber(request);
+        userService.archive(created.id());
+
+        // when
+        int published = userOutboxRelay.relay();
+        int pruned = userOutboxRelay.prune();
+
+        // then
+        List<OutboxMessage> messages = ((InMemoryOutboxSink) outboxSink).messages();
+        assertThat(published).isEqualTo(2);
+        assertThat(messages).extracting(OutboxMessage::type).containsExactly("CREATED", "ARCHIVED");
+        JsonNode snapshot = objectMapper.readTree(messages.get(1).payload());
+        assertThat(snapshot.get("id").asLong()).isEqualTo(created.id());
+        assertThat(snapshot.get("archived").asBoolean()).isTrue();
+        assertThat(snapshot.get("roles")).extracting(JsonNode::asText).containsExactly("ROLE_SUBSCRIBER");
+        assertThat(pruned).isGreaterThanOrEqualTo(2);
+        assertThat(outboxRowCount()).isZero();
+    }
+
+    @Test
+    void shouldSkipEventsClaimedByAnotherRelayUntilLeaseExpires() {
+        // given
+        UserRequest request = UserRequestBuilderTest.aUserRequest().withUserName("claimed_outbox_user").build();
+        UserResponse created = userService.createWithRoleSubscriber(request);
+        jdbcTemplate.update("update user_outbox set claimed_until = now() + interval '1 hour' where user_id = ?",
+                created.id());
+
+        // when
+        int whileClaimed = userOutboxRelay.relay();
+        jdbcTemplate.update("update user_outbox set claimed_until = now() - interval '1 second' where user_id = ?",
+                created.id());
+        int afterLeaseExpired = userOutboxRelay.relay();
+
+        // then
+        assertThat(whileClaimed).isZero();
+        assertThat(afterLeaseExpired).isEqualTo(1);
+        assertThat(((InMemoryOutboxSink) outboxSink).messages()).extracting(OutboxMessage::userId)
+                .containsExactly(created.id());
+        assertThat(outboxRowCount()).isZero();
+    }
+
+    @Test
+    void shouldNotWriteOutboxWhenUpdateIsRejected() {
+        // given
+        UserRequest request = UserRequestBuilderTest.aUserRequest().withUserName("rejected_update").build();
+
+        // when
+        Throwable thrown = catchThrowable(() -> userService.updateUser(1L, request, 999L));
+
+        // then
+        assertThat(thrown).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(outboxRowCount()).isZero();
+    }
+
+    @TestConfiguration
+    static class InMemorySinkConfiguration {
+
+        @Bean
+        @Primary
+        OutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink();
+        }
+    }
+
+    private Integer outboxRowCount() {
+        return jdbcTemplate.queryForObject("select count(*) from user_outbox where published_at is null", Integer.class);
+    }
+}
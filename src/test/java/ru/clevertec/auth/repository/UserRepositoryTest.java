@@ -1,11 +1,14 @@
 package ru.clevertec.auth.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.entity.dto.user.UserResponse;
+import ru.clevertec.auth.entity.user.Role;
 import ru.clevertec.auth.entity.user.User;
 
 import java.util.Optional;
@@ -28,16 +31,15 @@ public class UserRepositoryTest extends PostgresSQLContainerInitializer {
 
 
     @Test
-    void shouldReturnedUserByUuid() {
+    void shouldReturnTrueWhenUserWithUuidExists() {
         //given
-        User user = testEntityManager.find(User.class, 1);
         UUID uuid = UUID.fromString("0bdc4d34-af90-4b42-bba6-f588323c87d7");
 
         //when
-        Optional<User> actual = userRepository.findByUuid(uuid);
+        boolean actual = userRepository.existsByUuid(uuid);
 
         //then
-        assertThat(actual).isEqualTo(Optional.of(user));
+        assertThat(actual).isTrue();
     }
 
     @Test
@@ -52,4 +54,24 @@ public class UserRepositoryTest extends PostgresSQLContainerInitializer {
         //then
         assertThat(actual).isEqualTo(Optional.of(user));
     }
+
+    @Test
+    void shouldReadRoleNamesFromBackfilledRoleMask() {
+        //when
+        Optional<User> actual = userRepository.findById(1L);
+
+        //then
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getRoleNames()).containsExactly(Role.ROLE_ADMIN);
+        assertThat(Hibernate.isInitialized(actual.get().getRoles())).isFalse();
+    }
+
+    @Test
+    void shouldReturnedUserResponseById() {
+        //when
+        Optional<UserResponse> actual = userRepository.findUserResponseById(1L);
+
+        //then
+        assertThat(actual).contains(new UserResponse(1L, "Test name", "Test userName"));
+    }
 }
@@ -0,0 +1,109 @@
+package ru.clevertec.auth.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import ru.clevertec.auth.cache.CacheNames;
+import ru.clevertec.auth.security.JwtTokenProvider;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Stops the database under a running application and checks that token validation keeps answering
+ * from the last known user snapshots, while logins are answered with 503.
+ * The database has its own container, since it does not come back.
+ */
+@SpringBootTest(properties = {
+        "audit.login.enabled=false",
+        "cache.invalidation.enabled=false",
+        "spring.datasource.hikari.connection-timeout=500ms",
+        "resilience.user-lookup.sliding-window-size=2",
+        "resilience.user-lookup.minimum-number-of-calls=2",
+        "resilience.user-lookup.wait-duration-in-open-state=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class DegradedModeIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:13.3");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserLookupGuard userLookupGuard;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeAll
+    static void startContainer() {
+        POSTGRES.start();
+    }
+
+    @AfterAll
+    static void stopContainer() {
+        POSTGRES.stop();
+    }
+
+    @DynamicPropertySource
+    private static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    }
+
+    @Test
+    void shouldValidateFromLastKnownSnapshotWhileDatabaseIsDown() throws Exception {
+        // given
+        String known = jwtTokenProvider.createAccessToken(1L, "Test userName", Set.of("ROLE_SUBSCRIBER"));
+        String unknown = jwtTokenProvider.createAccessToken(999L, "unknown", Set.of("ROLE_SUBSCRIBER"));
+        mockMvc.perform(post("/auth/validate").contentType(APPLICATION_JSON).content(known))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.degraded").value(false));
+        cacheManager.getCache(CacheNames.USER_SNAPSHOTS).clear();
+
+        // when
+        POSTGRES.stop();
+
+        // then
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/auth/validate").contentType(APPLICATION_JSON).content(known))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(1))
+                    .andExpect(jsonPath("$.degraded").value(true));
+        }
+        assertThat(userLookupGuard.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        long start = System.nanoTime();
+        mockMvc.perform(post("/auth/validate").contentType(APPLICATION_JSON).content(unknown))
+                .andExpect(status().isServiceUnavailable());
+        assertThat(System.nanoTime() - start).isLessThan(250_000_000L);
+
+        mockMvc.perform(post("/auth/login").contentType(APPLICATION_JSON)
+                        .content("{\"username\":\"Test userName\",\"password\":\"password\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+    }
+}
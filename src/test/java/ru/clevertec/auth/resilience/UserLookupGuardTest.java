@@ -0,0 +1,142 @@
+package ru.clevertec.auth.resilience;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import ru.clevertec.auth.deadline.Deadline;
+import ru.clevertec.auth.deadline.DeadlineExceededException;
+import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.service.props.UserLookupResilienceProperties;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class UserLookupGuardTest {
+
+    private UserLookupResilienceProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new UserLookupResilienceProperties();
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumNumberOfCalls(4);
+        properties.setMaxConcurrentCalls(1);
+    }
+
+    @Test
+    void shouldOpenAfterDatabaseFailuresAndRefuseFurtherLookups() {
+        // given
+        UserLookupGuard guard = new UserLookupGuard(properties);
+        for (int i = 0; i < 4; i++) {
+            catchThrowable(() -> guard.call(() -> {
+                throw new CannotCreateTransactionException("Connection refused");
+            }));
+        }
+
+        // when
+        Throwable thrown = catchThrowable(() -> guard.call(() -> "user"));
+
+        // then
+        assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(thrown).isInstanceOf(UserLookupUnavailableException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    void shouldNotCountMissingUsersAsFailures() {
+        // given
+        UserLookupGuard guard = new UserLookupGuard(properties);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            Throwable thrown = catchThrowable(() -> guard.call(() -> {
+                throw EntityNotFoundException.of(User.class, 1L);
+            }));
+            assertThat(thrown).isInstanceOf(EntityNotFoundException.class);
+        }
+
+        // then
+        assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldReportQueryCancelledAtDeadlineWithoutCountingFailure() {
+        // given
+        UserLookupGuard guard = new UserLookupGuard(properties);
+        List<Throwable> thrown = new ArrayList<>();
+
+        // when
+        try (Deadline.Scope ignored = Deadline.after(Duration.ofSeconds(1)).bind()) {
+            for (int i = 0; i < 4; i++) {
+                thrown.add(catchThrowable(() -> guard.call(() -> {
+                    throw new QueryTimeoutException("canceling statement due to statement timeout",
+                            new SQLException("canceling statement due to statement timeout", "57014"));
+                })));
+            }
+        }
+
+        // then
+        assertThat(thrown).allSatisfy(exception -> assertThat(exception).isInstanceOf(DeadlineExceededException.class));
+        assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldCountQueryTimeoutWithoutDeadlineAsFailure() {
+        // given
+        UserLookupGuard guard = new UserLookupGuard(properties);
+
+        // when
+        Throwable thrown = catchThrowable(() -> guard.call(() -> {
+            throw new QueryTimeoutException("canceling statement due to statement timeout");
+        }));
+
+        // then
+        assertThat(thrown).isInstanceOf(UserLookupUnavailableException.class);
+    }
+
+    @Test
+    void shouldFailFastWhenLookupsPileUp() throws Exception {
+        // given
+        UserLookupGuard guard = new UserLookupGuard(properties);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> guard.call(() -> {
+            blocked.countDown();
+            awaitQuietly(release);
+            return "user";
+        }));
+        blocked.await(5, TimeUnit.SECONDS);
+
+        // when
+        Throwable thrown = catchThrowable(() -> guard.call(() -> "user"));
+
+        // then
+        assertThat(thrown).isInstanceOf(UserLookupUnavailableException.class)
+                .hasCauseInstanceOf(BulkheadFullException.class);
+        release.countDown();
+        executor.shutdown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
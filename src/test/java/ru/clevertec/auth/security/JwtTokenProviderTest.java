@@ -0,0 +1,195 @@
+package ru.clevertec.auth.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.CannotCreateTransactionException;
+import ru.clevertec.auth.entity.dto.auth.JwtResponse;
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.resilience.UserLookupGuard;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
+import ru.clevertec.auth.service.UserInnerService;
+import ru.clevertec.auth.service.props.JwtProperties;
+import ru.clevertec.auth.service.props.UserLookupResilienceProperties;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "a2pzZGRnaGh2LGRtZmJhbGtqYmphZmJrcic7bmEgLCdlbWI7ZWFqaHJnaWhhZWk7b3Z1c2F2ay8uYW1ibHRyd2hp";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserInnerService userService;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+    private UserLookupGuard userLookupGuard;
+
+    private JwtProperties jwtProperties;
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setAccess(600_000);
+        jwtProperties.setRefresh(600_000);
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        userLookupGuard = new UserLookupGuard(new UserLookupResilienceProperties());
+        jwtTokenProvider = new JwtTokenProvider(
+                jwtProperties, userDetailsService, userService, meterRegistry, observationRegistry, userLookupGuard);
+        jwtTokenProvider.init();
+    }
+
+    @Test
+    void shouldTimeSigningAndVerification() {
+        // given
+        String token = jwtTokenProvider.createAccessToken(1L, "user", Set.of("ROLE_ADMIN"));
+
+        // when
+        boolean valid = jwtTokenProvider.isValid(token);
+
+        // then
+        assertThat(valid).isTrue();
+        assertThat(meterRegistry.get(AuthMetrics.JWT_SIGN).tag(AuthMetrics.TAG_TYPE, "access").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(AuthMetrics.JWT_VERIFY).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldVerifyTokenOnceWhenBuildingResponses() {
+        // given
+        String access = jwtTokenProvider.createAccessToken(1L, "user", Set.of("ROLE_SUBSCRIBER"));
+        String refresh = jwtTokenProvider.createRefreshToken(1L, "user");
+        when(userService.getSnapshotById(1L)).thenReturn(snapshot());
+
+        // when
+        jwtTokenProvider.getJwtResponse(access);
+        jwtTokenProvider.refreshUserTokens(refresh);
+
+        // then
+        assertThat(meterRegistry.get(AuthMetrics.JWT_VERIFY).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountRejectionReasons() {
+        // given
+        jwtProperties.setAccess(-1_000);
+        String expired = jwtTokenProvider.createAccessToken(1L, "user", Set.of("ROLE_ADMIN"));
+
+        // when
+        jwtTokenProvider.isValid(expired);
+        jwtTokenProvider.isValid("not-a-token");
+        jwtTokenProvider.isValid(tamperSignature(jwtTokenProvider.createRefreshToken(1L, "user")));
+
+        // then
+        assertThat(failures("expired")).isEqualTo(1);
+        assertThat(failures("malformed")).isEqualTo(1);
+        assertThat(failures("signature")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerValidationFromLastKnownSnapshotWhenLookupIsUnavailable() {
+        // given
+        UserSnapshot snapshot = snapshot();
+        userLookupGuard.remember(snapshot);
+        String token = jwtTokenProvider.createAccessToken(1L, "user", Set.of("ROLE_SUBSCRIBER"));
+        when(userService.getSnapshotById(1L)).thenThrow(unavailable());
+
+        // when
+        JwtResponse response = jwtTokenProvider.getJwtResponse(token);
+
+        // then
+        assertThat(response.isDegraded()).isTrue();
+        assertThat(response.getUuid()).isEqualTo(snapshot.uuid());
+        assertThat(response.getRoles()).isEqualTo(snapshot.roles());
+        assertThat(meterRegistry.get(AuthMetrics.DEGRADED_RESPONSES).tag(AuthMetrics.TAG_TYPE, "validate")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAuthenticateFromLastKnownSnapshotWhenLookupIsUnavailable() {
+        // given
+        userLookupGuard.remember(snapshot());
+        String token = jwtTokenProvider.createAccessToken(1L, "user", Set.of("ROLE_SUBSCRIBER"));
+        when(userDetailsService.loadUserByUsername("user")).thenThrow(unavailable());
+
+        // when
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+
+        // then
+        assertThat(((JwtEntity) authentication.getPrincipal()).getId()).isEqualTo(1L);
+        assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities()))
+                .containsExactly("ROLE_SUBSCRIBER");
+    }
+
+    @Test
+    void shouldFailWhenLookupIsUnavailableAndUserIsUnknown() {
+        // given
+        String token = jwtTokenProvider.createAccessToken(1L, "user", Set.of("ROLE_SUBSCRIBER"));
+        when(userService.getSnapshotById(1L)).thenThrow(unavailable());
+
+        // when
+        Throwable thrown = catchThrowable(() -> jwtTokenProvider.getJwtResponse(token));
+
+        // then
+        assertThat(thrown).isInstanceOf(UserLookupUnavailableException.class);
+    }
+
+    @Test
+    void shouldNotAnswerForArchivedUserFromLastKnownSnapshot() {
+        // given
+        userLookupGuard.remember(snapshot());
+        userLookupGuard.forget(1L);
+        String token = jwtTokenProvider.createAccessToken(1L, "user", Set.of("ROLE_SUBSCRIBER"));
+        when(userService.getSnapshotById(1L)).thenThrow(unavailable());
+
+        // when
+        Throwable thrown = catchThrowable(() -> jwtTokenProvider.getJwtResponse(token));
+
+        // then
+        assertThat(thrown).isInstanceOf(UserLookupUnavailableException.class);
+    }
+
+    private static UserSnapshot snapshot() {
+        return new UserSnapshot(1L, UUID.fromString("0bdc4d34-af90-4b42-bba6-f588323c87d7"),
+                "User", "user", Set.of("ROLE_SUBSCRIBER"), false, 0L);
+    }
+
+    private static UserLookupUnavailableException unavailable() {
+        return new UserLookupUnavailableException(new CannotCreateTransactionException("Connection refused"));
+    }
+
+    private static String tamperSignature(String token) {
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        return token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+    }
+
+    private double failures(String reason) {
+        return meterRegistry.get(AuthMetrics.JWT_VALIDATION_FAILURES).tag(AuthMetrics.TAG_REASON, reason)
+                .counter().count();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.clevertec.auth.security;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import ru.clevertec.auth.cache.NegativeUserCache;
+import ru.clevertec.auth.entity.dto.user.UserSnapshot;
+import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.mapper.UserMapper;
+import ru.clevertec.auth.resilience.UserLookupGuard;
+import ru.clevertec.auth.service.UserInnerService;
+import ru.clevertec.auth.service.props.UserCacheProperties;
+import ru.clevertec.auth.service.props.UserLookupResilienceProperties;
+import ru.clevertec.exceptionhandlerstarter.exception.EntityNotFoundException;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class JwtUserDetailsServiceTest {
+
+    @Mock
+    private UserInnerService userService;
+
+    @Mock
+    private UserMapper userMapper;
+
+    private UserLookupGuard userLookupGuard;
+
+    private JwtUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userLookupGuard = new UserLookupGuard(new UserLookupResilienceProperties());
+        userDetailsService = new JwtUserDetailsService(userService,
+                new NegativeUserCache(new UserCacheProperties()),
+                ObservationRegistry.NOOP,
+                userLookupGuard,
+                userMapper);
+    }
+
+    @Test
+    void shouldRememberLoadedUserAsLastKnown() {
+        // given
+        User user = User.builder()
+                .id(1L)
+                .uuid(UUID.randomUUID())
+                .name("Test name")
+                .username("Test userName")
+                .password("password")
+                .roleMask((short) 1)
+                .build();
+        UserSnapshot snapshot = new UserSnapshot(1L, user.getUuid(), "Test name", "Test userName",
+                Set.of("ROLE_ADMIN"), false, 0L);
+        given(userService.getByUsername("Test userName")).willReturn(user);
+        given(userMapper.toSnapshot(user)).willReturn(snapshot);
+
+        // when
+        userDetailsService.loadUserByUsername("Test userName");
+
+        // then
+        assertThat(userLookupGuard.lastKnown(1L)).contains(snapshot);
+    }
+
+    @Test
+    void shouldNotRememberMissingUser() {
+        // given
+        given(userService.getByUsername("unknown")).willThrow(EntityNotFoundException.of(User.class, "unknown"));
+
+        // when
+        Throwable thrown = catchThrowable(() -> userDetailsService.loadUserByUsername("unknown"));
+
+        // then
+        assertThat(thrown).isInstanceOf(UsernameNotFoundException.class);
+        assertThat(userLookupGuard.lastKnown(1L)).isEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package ru.clevertec.auth.security;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.util.JwtRequestBuilderTest;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "audit.login.enabled=false")
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoginConnectionHoldTest extends PostgresSQLContainerInitializer {
+
+    private static final List<String> CHECKED_OBSERVATIONS = List.of(
+            AuthMetrics.PASSWORD_MATCHES, AuthMetrics.JWT_SIGN);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ActiveConnectionProbe probe;
+
+    @Test
+    void loginShouldNotHoldConnectionWhileHashingOrSigning() throws Exception {
+        // given
+        String json = "{\"username\":\"" + JwtRequestBuilderTest.aJwtRequest().build().getUsername()
+                + "\",\"password\":\"100\"}";
+        probe.activeConnections.clear();
+
+        // when
+        mockMvc.perform(post("/auth/login")
+                        .contentType(APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(probe.activeConnections).hasSize(3).containsOnly(0);
+    }
+
+    /**
+     * Samples the number of checked-out connections whenever BCrypt checking or token signing starts.
+     */
+    static class ActiveConnectionProbe implements ObservationHandler<Observation.Context> {
+
+        private final HikariDataSource dataSource;
+        private final List<Integer> activeConnections = new CopyOnWriteArrayList<>();
+
+        ActiveConnectionProbe(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public void onStart(Observation.Context context) {
+            activeConnections.add(dataSource.getHikariPoolMXBean().getActiveConnections());
+        }
+
+        @Override
+        public boolean supportsContext(Observation.Context context) {
+            return CHECKED_OBSERVATIONS.contains(context.getName());
+        }
+    }
+
+    @TestConfiguration
+    static class ProbeConfig {
+
+        @Bean
+        ActiveConnectionProbe activeConnectionProbe(DataSource dataSource) throws Exception {
+            return new ActiveConnectionProbe(dataSource.unwrap(HikariDataSource.class));
+        }
+    }
+}
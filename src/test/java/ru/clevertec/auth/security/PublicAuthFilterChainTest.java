@@ -0,0 +1,43 @@
+package ru.clevertec.auth.security;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.security.web.FilterChainProxy;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PublicAuthFilterChainTest extends PostgresSQLContainerInitializer {
+
+    @Autowired
+    private FilterChainProxy springSecurityFilterChain;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/auth/login", "/auth/register", "/auth/refresh", "/auth/validate", "/auth/check"})
+    void publicAuthEndpointsShouldSkipBearerTokenProcessing(String url) {
+        // when
+        List<Filter> filters = springSecurityFilterChain.getFilters(url);
+
+        // then
+        assertThat(filters).noneMatch(JwtTokenFilter.class::isInstance);
+        assertThat(filters.size()).isLessThan(springSecurityFilterChain.getFilters("/users/1").size());
+    }
+
+    @Test
+    void protectedEndpointsShouldKeepBearerTokenProcessing() {
+        // when
+        List<Filter> filters = springSecurityFilterChain.getFilters("/users/1");
+
+        // then
+        assertThat(filters).anyMatch(JwtTokenFilter.class::isInstance);
+    }
+}
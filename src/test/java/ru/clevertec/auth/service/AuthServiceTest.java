@@ -1,28 +1,46 @@
 package ru.clevertec.auth.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import ru.clevertec.auth.audit.LoginActivity;
 import ru.clevertec.auth.entity.dto.auth.JwtRequest;
 import ru.clevertec.auth.entity.dto.auth.JwtResponse;
+import ru.clevertec.auth.entity.dto.auth.TokenCheck;
 import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.resilience.UserLookupUnavailableException;
+import ru.clevertec.auth.security.JwtEntity;
 import ru.clevertec.auth.security.JwtTokenProvider;
 import ru.clevertec.auth.service.impl.AuthServiceImpl;
 import ru.clevertec.auth.util.JwtRequestBuilderTest;
 import ru.clevertec.auth.util.JwtResponseBuilderTest;
 import ru.clevertec.auth.util.UserTestBuilderTest;
 
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,9 +49,12 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
     @Mock
-    private UserInnerService userService;
-    @Mock
     private JwtTokenProvider jwtTokenProvider;
+    @Mock
+    private LoginAuditService loginAuditService;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private ObservationRegistry observationRegistry = observedBy(meterRegistry);
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -42,9 +63,17 @@ class AuthServiceTest {
     void shouldAuthenticateUserAndGenerateJwtTokens() {
         JwtRequest loginRequest = JwtRequestBuilderTest.aJwtRequest().build();
         User user = UserTestBuilderTest.anUser().build();
-        Authentication authentication = new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword());
+        JwtEntity principal = JwtEntity.builder()
+                .id(user.getId())
+                .uuid(user.getUuid())
+                .username(user.getUsername())
+                .name(user.getName())
+                .password(user.getPassword())
+                .authorities(AuthorityUtils.createAuthorityList(user.getRoleNames()))
+                .build();
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities());
 
-        when(userService.getByUsername(anyString())).thenReturn(user);
         when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(authentication);
         when(jwtTokenProvider.createAccessToken(anyLong(), anyString(), anySet())).thenReturn("access-token");
         when(jwtTokenProvider.createRefreshToken(anyLong(), anyString())).thenReturn("refresh-token");
@@ -54,6 +83,8 @@ class AuthServiceTest {
         assertThat(jwtResponse.getUsername()).isEqualTo(loginRequest.getUsername());
         assertThat(jwtResponse.getAccessToken()).isNotBlank();
         assertThat(jwtResponse.getRefreshToken()).isNotBlank();
+        verify(loginAuditService).record(argThat(activity ->
+                activity.type() == LoginActivity.Type.LOGIN && activity.success()));
     }
 
     @Test
@@ -66,6 +97,22 @@ class AuthServiceTest {
         assertThatThrownBy(() -> authService.login(loginRequest))
                 .isInstanceOf(BadCredentialsException.class)
                 .hasMessageContaining("Bad credentials");
+        verify(loginAuditService).record(argThat(activity ->
+                activity.type() == LoginActivity.Type.LOGIN && !activity.success()));
+        assertThat(meterRegistry.get(AuthMetrics.AUTHENTICATE).tag(AuthMetrics.TAG_OUTCOME, "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRethrowUnavailableUserLookupWithoutAuditingFailure() {
+        JwtRequest loginRequest = JwtRequestBuilderTest.aJwtRequest().build();
+        UserLookupUnavailableException unavailable = new UserLookupUnavailableException(new RuntimeException());
+
+        when(authenticationManager.authenticate(any(Authentication.class)))
+                .thenThrow(new InternalAuthenticationServiceException("Lookup failed", unavailable));
+
+        assertThatThrownBy(() -> authService.login(loginRequest)).isSameAs(unavailable);
+        verify(loginAuditService, never()).record(any());
     }
 
     @Test
@@ -92,4 +139,23 @@ class AuthServiceTest {
         assertThat(result.getUsername()).isEqualTo("Test userName");
         verify(jwtTokenProvider).getJwtResponse("access-token");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldCheckTokenWithoutAuditing() {
+        TokenCheck tokenCheck = new TokenCheck(1L, UUID.randomUUID(), "Test userName",
+                Set.of("ROLE_USER"), Instant.now().plusSeconds(60));
+
+        when(jwtTokenProvider.check("access-token")).thenReturn(Optional.of(tokenCheck));
+
+        Optional<TokenCheck> result = authService.check("access-token");
+
+        assertThat(result).contains(tokenCheck);
+        verifyNoInteractions(loginAuditService);
+    }
+
+    private static ObservationRegistry observedBy(MeterRegistry meterRegistry) {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        return registry;
+    }
+}
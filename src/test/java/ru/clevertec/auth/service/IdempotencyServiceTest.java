@@ -0,0 +1,188 @@
+package ru.clevertec.auth.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.deadline.Deadline;
+import ru.clevertec.auth.entity.dto.user.UserResponse;
+import ru.clevertec.auth.exception.IdempotencyKeyException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest extends PostgresSQLContainerInitializer {
+
+    private static final String SCOPE = "test";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from idempotency_keys where scope = ?", SCOPE);
+    }
+
+    @Test
+    void shouldReplayFirstResponseForRetry() {
+        // given
+        UserResponse first = idempotencyService.execute(SCOPE, "retry", Map.of("name", "user"),
+                UserResponse.class, this::createUser);
+
+        // when
+        UserResponse retry = idempotencyService.execute(SCOPE, "retry", Map.of("name", "user"),
+                UserResponse.class, this::createUser);
+
+        // then
+        assertThat(retry).isEqualTo(first);
+        assertThat(runs).hasValue(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "select response is not null from idempotency_keys where scope = ? and idempotency_key = ?",
+                Boolean.class, SCOPE, "retry")).isTrue();
+    }
+
+    @Test
+    void concurrentDuplicatesShouldWaitForRequestInFlight() throws Exception {
+        // given
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return idempotencyService.execute(SCOPE, "concurrent", Map.of("name", "user"),
+                        UserResponse.class, this::createSlowly);
+            }));
+        }
+
+        // when
+        start.countDown();
+        List<UserResponse> responses = new ArrayList<>();
+        for (Future<UserResponse> result : results) {
+            responses.add(result.get());
+        }
+        callers.shutdown();
+
+        // then
+        assertThat(runs).hasValue(1);
+        assertThat(responses).containsOnly(responses.get(0));
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        // given
+        idempotencyService.execute(SCOPE, "reused", Map.of("name", "user"), UserResponse.class, this::createUser);
+
+        // when
+        Throwable thrown = catchThrowable(() -> idempotencyService.execute(SCOPE, "reused",
+                Map.of("name", "other"), UserResponse.class, this::createUser));
+
+        // then
+        assertThat(thrown).isInstanceOf(IdempotencyKeyException.class);
+        assertThat(((IdempotencyKeyException) thrown).getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void shouldRunRequestAgainAfterFailure() {
+        // given
+        catchThrowable(() -> idempotencyService.execute(SCOPE, "failed", Map.of("name", "user"),
+                UserResponse.class, () -> {
+                    runs.incrementAndGet();
+                    throw new IllegalArgumentException("User already exists.");
+                }));
+
+        // when
+        UserResponse retry = idempotencyService.execute(SCOPE, "failed", Map.of("name", "user"),
+                UserResponse.class, this::createUser);
+
+        // then
+        assertThat(retry.username()).isEqualTo("user");
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void shouldWaitForDuplicateInProgressOnAnotherInstance() throws Exception {
+        // given
+        UserResponse remote = idempotencyService.execute(SCOPE, "probe", Map.of("name", "user"),
+                UserResponse.class, this::createUser);
+        claimOnAnotherInstance("remote");
+        ScheduledExecutorService otherInstance = Executors.newSingleThreadScheduledExecutor();
+        otherInstance.schedule(() -> jdbcTemplate.update("update idempotency_keys set response = "
+                + "(select response from idempotency_keys where scope = ? and idempotency_key = 'probe') "
+                + "where scope = ? and idempotency_key = 'remote'", SCOPE, SCOPE), 300, TimeUnit.MILLISECONDS);
+
+        // when
+        UserResponse retry = idempotencyService.execute(SCOPE, "remote", Map.of("name", "user"),
+                UserResponse.class, this::createUser);
+        otherInstance.shutdown();
+
+        // then
+        assertThat(retry).isEqualTo(remote);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void shouldRejectDuplicateStillInProgressOnAnotherInstanceAtDeadline() {
+        // given
+        idempotencyService.execute(SCOPE, "probe", Map.of("name", "user"), UserResponse.class, this::createUser);
+        claimOnAnotherInstance("stuck");
+
+        // when
+        Throwable thrown;
+        try (Deadline.Scope ignored = Deadline.after(Duration.ofMillis(300)).bind()) {
+            thrown = catchThrowable(() -> idempotencyService.execute(SCOPE, "stuck", Map.of("name", "user"),
+                    UserResponse.class, this::createUser));
+        }
+
+        // then
+        assertThat(thrown).isInstanceOf(IdempotencyKeyException.class);
+        assertThat(((IdempotencyKeyException) thrown).getStatus()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(runs).hasValue(1);
+    }
+
+    private void claimOnAnotherInstance(String key) {
+        jdbcTemplate.update("insert into idempotency_keys (scope, idempotency_key, fingerprint, expires_at) "
+                + "select scope, ?, fingerprint, expires_at from idempotency_keys "
+                + "where scope = ? and idempotency_key = 'probe'", key, SCOPE);
+    }
+
+    private UserResponse createUser() {
+        return new UserResponse((long) runs.incrementAndGet(), "User", "user");
+    }
+
+    private UserResponse createSlowly() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return createUser();
+    }
+}
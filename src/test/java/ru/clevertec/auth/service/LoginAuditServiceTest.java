@@ -0,0 +1,135 @@
+package ru.clevertec.auth.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import ru.clevertec.auth.audit.LoginActivity;
+import ru.clevertec.auth.audit.LoginActivityBuffer;
+import ru.clevertec.auth.repository.LoginActivityRepository;
+import ru.clevertec.auth.service.impl.LoginAuditServiceImpl;
+import ru.clevertec.auth.service.props.LoginAuditProperties;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAuditServiceTest {
+
+    @Mock
+    private LoginActivityRepository loginActivityRepository;
+
+    @Captor
+    private ArgumentCaptor<List<LoginActivity>> activitiesCaptor;
+
+    @Captor
+    private ArgumentCaptor<Map<Long, Instant>> lastLoginsCaptor;
+
+    private LoginAuditProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LoginAuditProperties();
+        properties.setCapacity(4);
+    }
+
+    @Test
+    void shouldCoalesceLastLoginPerUser() {
+        // given
+        LoginAuditServiceImpl loginAuditService = new LoginAuditServiceImpl(loginActivityRepository, properties);
+        Instant first = Instant.parse("2024-01-01T10:00:00Z");
+        Instant last = Instant.parse("2024-01-01T10:05:00Z");
+        loginAuditService.record(new LoginActivity(1L, "user", LoginActivity.Type.LOGIN, true, last));
+        loginAuditService.record(new LoginActivity(1L, "user", LoginActivity.Type.LOGIN, true, first));
+        loginAuditService.record(new LoginActivity(1L, "user", LoginActivity.Type.VALIDATE, true, last));
+        loginAuditService.record(LoginActivity.failed("user", LoginActivity.Type.LOGIN));
+
+        // when
+        int written = loginAuditService.flush();
+
+        // then
+        assertThat(written).isEqualTo(4);
+        verify(loginActivityRepository).saveAll(activitiesCaptor.capture(), lastLoginsCaptor.capture());
+        assertThat(activitiesCaptor.getValue()).hasSize(4);
+        assertThat(lastLoginsCaptor.getValue()).containsExactly(Map.entry(1L, last));
+    }
+
+    @Test
+    void shouldDropAndCountEventsWhenBufferIsFull() {
+        // given
+        properties.setOverflow(LoginActivityBuffer.Overflow.DROP);
+        LoginAuditServiceImpl loginAuditService = new LoginAuditServiceImpl(loginActivityRepository, properties);
+
+        // when
+        for (int i = 0; i < 6; i++) {
+            loginAuditService.record(LoginActivity.succeeded(1L, "user", LoginActivity.Type.VALIDATE));
+        }
+
+        // then
+        assertThat(loginAuditService.dropped()).isEqualTo(2);
+        assertThat(loginAuditService.flush()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldRetryFailedBatchOnce() {
+        // given
+        LoginAuditServiceImpl loginAuditService = new LoginAuditServiceImpl(loginActivityRepository, properties);
+        loginAuditService.record(LoginActivity.succeeded(1L, "user", LoginActivity.Type.LOGIN));
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .doNothing()
+                .when(loginActivityRepository).saveAll(any(), anyMap());
+
+        // when
+        int written = loginAuditService.flush();
+
+        // then
+        assertThat(written).isEqualTo(1);
+        assertThat(loginAuditService.failedWrites()).isZero();
+        verify(loginActivityRepository, times(2)).saveAll(any(), anyMap());
+    }
+
+    @Test
+    void shouldCountEventsOfBatchThatFailsTwice() {
+        // given
+        LoginAuditServiceImpl loginAuditService = new LoginAuditServiceImpl(loginActivityRepository, properties);
+        loginAuditService.record(LoginActivity.succeeded(1L, "user", LoginActivity.Type.LOGIN));
+        loginAuditService.record(LoginActivity.failed("user", LoginActivity.Type.LOGIN));
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(loginActivityRepository).saveAll(any(), anyMap());
+
+        // when
+        int written = loginAuditService.flush();
+
+        // then
+        assertThat(written).isZero();
+        assertThat(loginAuditService.failedWrites()).isEqualTo(2);
+        verify(loginActivityRepository, times(2)).saveAll(any(), anyMap());
+    }
+
+    @Test
+    void shouldNotBufferEventsWhenDisabled() {
+        // given
+        properties.setEnabled(false);
+        LoginAuditServiceImpl loginAuditService = new LoginAuditServiceImpl(loginActivityRepository, properties);
+
+        // when
+        loginAuditService.record(LoginActivity.succeeded(1L, "user", LoginActivity.Type.LOGIN));
+
+        // then
+        assertThat(loginAuditService.flush()).isZero();
+        verify(loginActivityRepository, never()).saveAll(any(), anyMap());
+    }
+}
@@ -0,0 +1,133 @@
+package ru.clevertec.auth.service;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import ru.clevertec.auth.exception.ProfilingException;
+import ru.clevertec.auth.jfr.OnDemandRecording;
+import ru.clevertec.auth.jfr.TokenMintEvent;
+import ru.clevertec.auth.service.impl.ProfilingServiceImpl;
+import ru.clevertec.auth.service.props.ProfilingProperties;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class ProfilingServiceTest {
+
+    private final ProfilingProperties properties = new ProfilingProperties();
+
+    private final ProfilingServiceImpl profilingService = new ProfilingServiceImpl(properties);
+
+    @AfterEach
+    void tearDown() {
+        profilingService.stop();
+    }
+
+    @Test
+    void shouldRecordApplicationEvents() throws Exception {
+        // given
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        executor.scheduleAtFixedRate(() -> {
+            TokenMintEvent event = new TokenMintEvent();
+            event.begin();
+            event.setType("access");
+            event.commit();
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        Path file = Files.createTempFile("profiling-test-", ".jfr");
+
+        // when
+        try (OnDemandRecording recording = profilingService.start(Duration.ofMillis(500));
+             OutputStream outputStream = Files.newOutputStream(file)) {
+            recording.stopped().get(30, TimeUnit.SECONDS);
+            recording.transferTo(outputStream);
+        }
+
+        // then
+        try {
+            executor.shutdownNow();
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events)
+                    .filteredOn(event -> TokenMintEvent.NAME.equals(event.getEventType().getName()))
+                    .isNotEmpty()
+                    .allSatisfy(event -> assertThat(event.getString("type")).isEqualTo("access"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void shouldCapRecordingAtMaxDuration() throws Exception {
+        // given
+        properties.setMaxDuration(Duration.ofMillis(100));
+
+        // when
+        try (OnDemandRecording recording = profilingService.start(Duration.ofHours(1))) {
+
+            // then
+            assertThat(recording.getTimeout()).isEqualTo(Duration.ofMillis(100).plus(properties.getCollectTimeout()));
+            assertThat(recording.stopped().get(30, TimeUnit.SECONDS)).isSameAs(recording);
+        }
+    }
+
+    @Test
+    void shouldRefuseSecondRecordingUntilFirstIsClosed() {
+        // given
+        OnDemandRecording first = profilingService.start(Duration.ofMinutes(1));
+
+        // when
+        ProfilingException thrown = catchThrowableOfType(
+                () -> profilingService.start(Duration.ofMinutes(1)), ProfilingException.class);
+        first.close();
+
+        // then
+        assertThat(thrown.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+        profilingService.start(Duration.ofMinutes(1)).close();
+    }
+
+    @Test
+    void shouldDiscardRecordingThatIsNotCollected() throws Exception {
+        // given
+        properties.setCollectTimeout(Duration.ofMillis(100));
+        OnDemandRecording recording = profilingService.start(Duration.ofMillis(100));
+        recording.stopped().get(30, TimeUnit.SECONDS);
+
+        // when
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        OnDemandRecording next = null;
+        while (next == null && System.nanoTime() < deadline) {
+            try {
+                next = profilingService.start(Duration.ofMinutes(1));
+            } catch (ProfilingException e) {
+                Thread.sleep(20);
+            }
+        }
+
+        // then
+        assertThat(next).isNotNull();
+        next.close();
+    }
+
+    @Test
+    void shouldRefuseRecordingWhenDisabled() {
+        // given
+        properties.setEnabled(false);
+
+        // when
+        ProfilingException thrown = catchThrowableOfType(
+                () -> profilingService.start(Duration.ofSeconds(1)), ProfilingException.class);
+
+        // then
+        assertThat(thrown.getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
@@ -7,12 +7,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.clevertec.auth.cache.UserSnapshotCache;
 import ru.clevertec.auth.mapper.UserMapper;
+import ru.clevertec.auth.entity.dto.user.UserPatchRequest;
 import ru.clevertec.auth.entity.dto.user.UserRequest;
 import ru.clevertec.auth.entity.dto.user.UserResponse;
+import ru.clevertec.auth.entity.dto.user.VersionedUserResponse;
 import ru.clevertec.auth.entity.user.Role;
 import ru.clevertec.auth.entity.user.User;
+import ru.clevertec.auth.event.UserChangedEvent;
 import ru.clevertec.auth.repository.UserRepository;
 import ru.clevertec.auth.service.impl.UserServiceImpl;
 import ru.clevertec.auth.util.RoleTestBuilder;
@@ -31,7 +37,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -48,6 +56,12 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -120,11 +134,8 @@ class UserServiceTest {
     void shouldReturnUserDtoWhenIdExists() {
         // given
         long id = 1L;
-        User user = UserTestBuilderTest.anUser().build();
-        user.setId(id);
         UserResponse expectedDto = UserResponseBuilderTest.aUserResponse().build();
-        given(userRepository.findById(id)).willReturn(Optional.of(user));
-        given(userMapper.toDto(user)).willReturn(expectedDto);
+        given(userRepository.findUserResponseById(id)).willReturn(Optional.of(expectedDto));
 
         // when
         UserResponse actualDto = userService.getUserDtoById(id);
@@ -138,7 +149,7 @@ class UserServiceTest {
     void shouldThrowEntityNotFoundExceptionWhenUserNotFoundByIdForDto() {
         // given
         long id = 1L;
-        given(userRepository.findById(id)).willReturn(Optional.empty());
+        given(userRepository.findUserResponseById(id)).willReturn(Optional.empty());
 
         // when
         Throwable thrown = catchThrowable(() -> userService.getUserDtoById(id));
@@ -155,19 +166,18 @@ class UserServiceTest {
         Long id = 1L;
         User existingUser = UserTestBuilderTest.anUser().build();
         UserRequest userRequest = UserRequestBuilderTest.aUserRequest().build();
-        UserResponse expectedResponse = UserResponseBuilderTest.aUserResponse().build();
+        VersionedUserResponse expectedResponse = new VersionedUserResponse(1L, "Test name", "Test userName", 1L);
         given(userRepository.findById(id)).willReturn(Optional.of(existingUser));
-        given(userRepository.findByUsername(existingUser.getUsername())).willReturn(Optional.empty());
         given(passwordEncoder.encode("100")).willReturn("100");
-        given(userRepository.save(existingUser)).willReturn(existingUser);
-        given(userMapper.toDto(existingUser)).willReturn(expectedResponse);
+        given(userRepository.saveAndFlush(existingUser)).willReturn(existingUser);
+        given(userMapper.toVersionedDto(existingUser)).willReturn(expectedResponse);
 
         // when
-        UserResponse actualResponse = userService.updateUser(id, userRequest);
+        VersionedUserResponse actualResponse = userService.updateUser(id, userRequest, null);
 
         // then
         assertThat(actualResponse).isEqualTo(expectedResponse);
-        verify(userRepository).save(userArgumentCaptor.capture());
+        verify(userRepository).saveAndFlush(userArgumentCaptor.capture());
         User savedUser = userArgumentCaptor.getValue();
         assertThat(savedUser.getName()).isEqualTo("Test name");
         assertThat(savedUser.getUsername()).isEqualTo("Test userName");
@@ -181,10 +191,10 @@ class UserServiceTest {
         User existingUser = UserTestBuilderTest.anUser().withUserName("otherName").build();
         UserRequest userRequest = UserRequestBuilderTest.aUserRequest().build();
         given(userRepository.findById(id)).willReturn(Optional.of(existingUser));
-        given(userRepository.findByUsername(userRequest.username())).willReturn(Optional.of(existingUser));
+        given(userRepository.existsByUsername(userRequest.username())).willReturn(true);
 
         // when
-        Throwable thrown = catchThrowable(() -> userService.updateUser(id, userRequest));
+        Throwable thrown = catchThrowable(() -> userService.updateUser(id, userRequest, null));
 
         // then
         assertThat(thrown).isInstanceOf(UniqueUsernameException.class)
@@ -200,13 +210,119 @@ class UserServiceTest {
         given(userRepository.findById(id)).willReturn(Optional.empty());
 
         // when
-        Throwable thrown = catchThrowable(() -> userService.updateUser(id, userRequest));
+        Throwable thrown = catchThrowable(() -> userService.updateUser(id, userRequest, null));
 
         // then
         assertThat(thrown).isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("User with 1 not found");
     }
 
+    @Test
+    void shouldThrowOptimisticLockingFailureWhenVersionDiffers() {
+        // given
+        Long id = 1L;
+        User existingUser = UserTestBuilderTest.anUser().build();
+        UserRequest userRequest = UserRequestBuilderTest.aUserRequest().build();
+        given(userRepository.findById(id)).willReturn(Optional.of(existingUser));
+
+        // when
+        Throwable thrown = catchThrowable(() -> userService.updateUser(id, userRequest, 7L));
+
+        // then
+        assertThat(thrown).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(userRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldReturnVersionedUserWithoutLoadingEntity() {
+        // given
+        long id = 1L;
+        VersionedUserResponse expected = new VersionedUserResponse(id, "Test name", "Test userName", 3L);
+        given(userRepository.findVersionedUserResponseById(id)).willReturn(Optional.of(expected));
+
+        // when
+        VersionedUserResponse actual = userService.getVersionedUser(id);
+
+        // then
+        assertThat(actual).isEqualTo(expected);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldPatchNameWithoutHashingPassword() {
+        // given
+        Long id = 1L;
+        User existingUser = UserTestBuilderTest.anUser().build();
+        UserPatchRequest patch = new UserPatchRequest("New name", null, null);
+        VersionedUserResponse expectedResponse = new VersionedUserResponse(1L, "New name", "Test userName", 1L);
+        given(userRepository.findById(id)).willReturn(Optional.of(existingUser));
+        given(userMapper.toVersionedDto(existingUser)).willReturn(expectedResponse);
+
+        // when
+        VersionedUserResponse actualResponse = userService.patchUser(id, patch, null);
+
+        // then
+        assertThat(actualResponse).isEqualTo(expectedResponse);
+        verify(userRepository).flush();
+        assertThat(existingUser.getName()).isEqualTo("New name");
+        assertThat(existingUser.getUsername()).isEqualTo("Test userName");
+        assertThat(existingUser.getPassword()).isEqualTo("100");
+        verifyNoInteractions(passwordEncoder);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(id, UserChangedEvent.Type.UPDATED));
+    }
+
+    @Test
+    void shouldHashPasswordWhenPatchContainsPassword() {
+        // given
+        Long id = 1L;
+        User existingUser = UserTestBuilderTest.anUser().build();
+        UserPatchRequest patch = new UserPatchRequest(null, null, "200");
+        given(userRepository.findById(id)).willReturn(Optional.of(existingUser));
+        given(passwordEncoder.encode("200")).willReturn("encodedPassword");
+
+        // when
+        userService.patchUser(id, patch, null);
+
+        // then
+        assertThat(existingUser.getPassword()).isEqualTo("encodedPassword");
+        assertThat(existingUser.getName()).isEqualTo("Test name");
+    }
+
+    @Test
+    void shouldNotPublishChangeWhenPatchDoesNotChangeAnything() {
+        // given
+        Long id = 1L;
+        User existingUser = UserTestBuilderTest.anUser().build();
+        UserPatchRequest patch = new UserPatchRequest("Test name", "Test userName", null);
+        given(userRepository.findById(id)).willReturn(Optional.of(existingUser));
+
+        // when
+        userService.patchUser(id, patch, null);
+
+        // then
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).flush();
+        verifyNoInteractions(passwordEncoder, eventPublisher);
+    }
+
+    @Test
+    void shouldThrowUniqueUsernameExceptionWhenPatchedUsernameExists() {
+        // given
+        Long id = 1L;
+        User existingUser = UserTestBuilderTest.anUser().build();
+        UserPatchRequest patch = new UserPatchRequest(null, "taken", null);
+        given(userRepository.findById(id)).willReturn(Optional.of(existingUser));
+        given(userRepository.existsByUsername("taken")).willReturn(true);
+
+        // when
+        Throwable thrown = catchThrowable(() -> userService.patchUser(id, patch, null));
+
+        // then
+        assertThat(thrown).isInstanceOf(UniqueUsernameException.class)
+                .hasMessageContaining("User with the current username already exists");
+    }
+
     @Test
     void shouldCreateUserSuccessfully() {
         // given
@@ -217,7 +333,7 @@ class UserServiceTest {
         UserResponse expectedResponse = UserResponseBuilderTest.aUserResponse().build();
         given(roleService.getByName("ROLE_SUBSCRIBER")).willReturn(roleSubscriber);
         given(roleService.getByName("ROLE_ADMIN")).willReturn(role);
-        given(userRepository.findByUsername(userRequest.username())).willReturn(Optional.empty());
+        given(userRepository.existsByUsername(userRequest.username())).willReturn(false);
         given(passwordEncoder.encode(userRequest.passwordConfirmation())).willReturn("100");
         given(userMapper.toDto(user)).willReturn(expectedResponse);
         given(userRepository.save(any(User.class))).willReturn(user);
@@ -233,6 +349,8 @@ class UserServiceTest {
         assertThat(savedUser.getUsername()).isEqualTo(userRequest.username());
         assertThat(savedUser.getPassword()).isEqualTo("100");
         assertThat(savedUser.getRoles()).contains(role);
+        assertThat(savedUser.getRoleNames()).containsExactlyInAnyOrder(Role.ROLE_ADMIN, Role.ROLE_SUBSCRIBER);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(user.getId(), UserChangedEvent.Type.CREATED));
     }
 
     @Test
@@ -257,7 +375,7 @@ class UserServiceTest {
         Role roleSubscriber = Role.builder().name("ROLE_SUBSCRIBER").build();
         UserResponse expectedResponse = UserResponseBuilderTest.aUserResponse().build();
         given(roleService.getByName("ROLE_SUBSCRIBER")).willReturn(roleSubscriber);
-        given(userRepository.findByUsername("Test name")).willReturn(Optional.empty());
+        given(userRepository.existsByUsername("Test name")).willReturn(false);
         given(passwordEncoder.encode(userRequest.passwordConfirmation())).willReturn("encodedPassword");
         given(userMapper.toDto(user)).willReturn(expectedResponse);
         given(userRepository.save(any(User.class))).willReturn(user);
@@ -273,6 +391,7 @@ class UserServiceTest {
         assertThat(savedUser.getUsername()).isEqualTo(userRequest.username());
         assertThat(savedUser.getPassword()).isEqualTo("encodedPassword");
         assertThat(savedUser.getRoles()).containsOnly(roleSubscriber);
+        assertThat(savedUser.getRoleMask()).isEqualTo((short) 2);
     }
 
     @Test
@@ -301,6 +420,7 @@ class UserServiceTest {
         // then
         assertThat(existingUser.isArchived()).isTrue();
         verify(userRepository).save(existingUser);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(userId, UserChangedEvent.Type.ARCHIVED));
     }
 
     @Test
@@ -321,9 +441,7 @@ class UserServiceTest {
     void shouldReturnTrueWhenUuidExists() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         // given
         UUID uuid = UUID.randomUUID();
-        User user = UserTestBuilderTest.anUser().build();
-        user.setUuid(uuid);
-        given(userRepository.findByUuid(uuid)).willReturn(Optional.of(user));
+        given(userRepository.existsByUuid(uuid)).willReturn(true);
 
         // when
         Method isExistMethod = UserServiceImpl.class.getDeclaredMethod("isExist", UUID.class);
@@ -339,7 +457,7 @@ class UserServiceTest {
     void shouldReturnFalseWhenUuidDoesNotExist() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         // given
         UUID uuid = UUID.randomUUID();
-        given(userRepository.findByUuid(uuid)).willReturn(Optional.empty());
+        given(userRepository.existsByUuid(uuid)).willReturn(false);
 
         // when
         Method isExistMethod = UserServiceImpl.class.getDeclaredMethod("isExist", UUID.class);
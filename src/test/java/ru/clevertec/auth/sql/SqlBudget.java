@@ -0,0 +1,31 @@
+package ru.clevertec.auth.sql;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Maximum number of JDBC statements an endpoint may execute per request.
+ *
+ * @param endpoint      the endpoint, used in the failure message.
+ * @param maxStatements the budget.
+ */
+public record SqlBudget(String endpoint, int maxStatements) {
+
+    /**
+     * Fails when the recorded statements exceed the budget, listing every statement.
+     *
+     * @param statements the statements recorded for one request.
+     */
+    public void assertWithin(List<String> statements) {
+        if (statements.size() <= maxStatements) {
+            return;
+        }
+        StringBuilder message = new StringBuilder()
+                .append(endpoint).append(" executed ").append(statements.size())
+                .append(" SQL statements, budget is ").append(maxStatements).append(':');
+        IntStream.range(0, statements.size())
+                .forEach(i -> message.append(System.lineSeparator())
+                        .append("  ").append(i + 1).append(". ").append(statements.get(i)));
+        throw new AssertionError(message.toString());
+    }
+}
@@ -0,0 +1,38 @@
+package ru.clevertec.auth.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application data source into a proxy reporting every statement to a {@link SqlStatementRecorder}.
+ */
+@TestConfiguration
+public class SqlBudgetConfiguration {
+
+    private static final SqlStatementRecorder RECORDER = new SqlStatementRecorder();
+
+    @Bean
+    SqlStatementRecorder sqlStatementRecorder() {
+        return RECORDER;
+    }
+
+    @Bean
+    static BeanPostProcessor sqlRecordingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("sql-budget")
+                            .listener(RECORDER)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package ru.clevertec.auth.sql;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.util.JwtRequestBuilderTest;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Declared SQL budgets of the endpoints, the single place where statement counts are asserted.
+ * Requests pass the full filter chain as in production, so authenticated endpoints are called with
+ * a bearer token and include the user load of the token filter.
+ * Caches are cold for every request, so the read budgets are worst cases; the warm budgets cover
+ * requests that a preceding identical request must have made free.
+ * Raising a budget has to be a deliberate change of this class.
+ */
+@SpringBootTest(properties = {"audit.login.enabled=false", "cache.invalidation.enabled=false"})
+@AutoConfigureMockMvc
+@Import(SqlBudgetConfiguration.class)
+@ActiveProfiles("test")
+class SqlBudgetTest extends PostgresSQLContainerInitializer {
+
+    private static final String TOKEN = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJUZXN0IHVzZXJOYW1lIiwiaW" +
+            "QiOjEsImV4cCI6MjIzOTUwNTA5NDE1MTQyfQ.09CZD97fSbHnashAD4B0AKeaY4" +
+            "kDE1pUToG-yOriMIvye9pRtdIOD6XzaZnbrVHwCnhlnjERlEcfXc6VN7xY6A";
+
+    private static final String REGISTERED_USERNAME = "sql_budget_user";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    static Stream<Arguments> readBudgets() {
+        String login = "{\"username\":\"" + JwtRequestBuilderTest.aJwtRequest().build().getUsername()
+                + "\",\"password\":\"100\"}";
+        return Stream.of(
+                Arguments.of(new SqlBudget("POST /auth/login", 1),
+                        post("/auth/login").contentType(APPLICATION_JSON).content(login)),
+                Arguments.of(new SqlBudget("POST /auth/validate", 1),
+                        post("/auth/validate").contentType(APPLICATION_JSON).content(TOKEN)),
+                Arguments.of(new SqlBudget("POST /auth/refresh", 1),
+                        post("/auth/refresh").contentType(APPLICATION_JSON).content(TOKEN)),
+                Arguments.of(new SqlBudget("GET /users/{id}", 2),
+                        get("/users/1").header(AUTHORIZATION, "Bearer " + TOKEN))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("readBudgets")
+    void readEndpointShouldStayWithinBudget(SqlBudget budget, RequestBuilder request) throws Exception {
+        // when
+        List<String> statements = execute(request);
+
+        // then
+        budget.assertWithin(statements);
+    }
+
+    static Stream<Arguments> warmBudgets() {
+        String unknown = "{\"username\":\"no_such_user\",\"password\":\"100\"}";
+        return Stream.of(
+                Arguments.of(new SqlBudget("POST /auth/validate, warm", 0),
+                        post("/auth/validate").contentType(APPLICATION_JSON).content(TOKEN),
+                        status().isOk()),
+                Arguments.of(new SqlBudget("POST /auth/login with unknown username, warm", 0),
+                        post("/auth/login").contentType(APPLICATION_JSON).content(unknown),
+                        status().is4xxClientError())
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("warmBudgets")
+    void repeatedRequestShouldStayWithinBudget(SqlBudget budget, RequestBuilder request, ResultMatcher expected)
+            throws Exception {
+        // given
+        mockMvc.perform(request).andExpect(expected);
+
+        // when
+        List<String> statements = execute(request, expected);
+
+        // then
+        budget.assertWithin(statements);
+    }
+
+    /**
+     * Registration is run committed, so the statements issued at commit time
+     * (role links, cache invalidation notification and, with the relay enabled, the outbox row) count as well.
+     */
+    @Nested
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class Committed {
+
+        @AfterEach
+        void cleanUp() {
+            jdbcTemplate.update("delete from user_outbox where user_id in "
+                    + "(select id from users where username = ?)", REGISTERED_USERNAME);
+            jdbcTemplate.update("delete from user_role where user_id in "
+                    + "(select id from users where username = ?)", REGISTERED_USERNAME);
+            jdbcTemplate.update("delete from users where username = ?", REGISTERED_USERNAME);
+        }
+
+        @Test
+        void registerShouldStayWithinBudget() throws Exception {
+            // given
+            String json = "{\"name\":\"Budget user\",\"username\":\"" + REGISTERED_USERNAME + "\","
+                    + "\"password\":\"100\",\"passwordConfirmation\":\"100\"}";
+
+            // when
+            List<String> statements = execute(post("/auth/register").contentType(APPLICATION_JSON).content(json));
+
+            // then
+            new SqlBudget("POST /auth/register", 7).assertWithin(statements);
+        }
+    }
+
+    private List<String> execute(RequestBuilder request) throws Exception {
+        return execute(request, status().is2xxSuccessful());
+    }
+
+    private List<String> execute(RequestBuilder request, ResultMatcher expected) throws Exception {
+        List<String> statements;
+        recorder.start();
+        try {
+            mockMvc.perform(request).andExpect(expected);
+        } finally {
+            statements = recorder.stop();
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.clevertec.auth.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the SQL executed through the proxied data source while a recording is active.
+ * Statements from every thread are recorded, so asynchronous cache loads triggered by a request count too.
+ */
+public class SqlStatementRecorder implements QueryExecutionListener {
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean recording;
+
+    public void start() {
+        statements.clear();
+        recording = true;
+    }
+
+    public List<String> stop() {
+        recording = false;
+        synchronized (statements) {
+            return List.copyOf(statements);
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!recording) {
+            return;
+        }
+        String prefix = execInfo.isBatch() ? "[batch x" + execInfo.getBatchSize() + "] " : "";
+        queryInfoList.forEach(query -> statements.add(prefix + query.getQuery()));
+    }
+}
@@ -0,0 +1,141 @@
+package ru.clevertec.auth.tracing;
+
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.clevertec.auth.config.PostgresSQLContainerInitializer;
+import ru.clevertec.auth.metrics.AuthMetrics;
+import ru.clevertec.auth.util.JwtRequestBuilderTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@ActiveProfiles("test")
+class TracingIntegrationTest extends PostgresSQLContainerInitializer {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String PARENT_SPAN_ID = "b7ad6b7169203331";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        spanExporter.reset();
+    }
+
+    @Test
+    void loginShouldContinueIncomingTraceWithAuthAndJdbcSpans() throws Exception {
+        // when
+        mockMvc.perform(post("/auth/login")
+                        .header("traceparent", "00-" + TRACE_ID + "-" + PARENT_SPAN_ID + "-01")
+                        .contentType(APPLICATION_JSON)
+                        .content(loginJson()))
+                .andExpect(status().isOk());
+
+        // then
+        List<SpanData> spans = spansOfTrace();
+        assertThat(spans).extracting(SpanData::getName).contains(
+                AuthMetrics.AUTHENTICATE,
+                AuthMetrics.LOAD_USER_DETAILS,
+                AuthMetrics.PASSWORD_MATCHES,
+                AuthMetrics.JWT_SIGN,
+                "query");
+        SpanData server = spans.stream()
+                .filter(span -> span.getKind() == SpanKind.SERVER)
+                .findFirst()
+                .orElseThrow();
+        SpanData authenticate = named(spans, AuthMetrics.AUTHENTICATE);
+        assertThat(server.getParentSpanId()).isEqualTo(PARENT_SPAN_ID);
+        assertThat(isDescendant(spans, authenticate, server)).isTrue();
+        assertThat(isDescendant(spans, named(spans, AuthMetrics.LOAD_USER_DETAILS), authenticate)).isTrue();
+        assertThat(isDescendant(spans, named(spans, AuthMetrics.PASSWORD_MATCHES), authenticate)).isTrue();
+        assertThat(isDescendant(spans, named(spans, AuthMetrics.JWT_SIGN), server)).isTrue();
+    }
+
+    @Test
+    void shouldNotRecordSpansWhenCallerDidNotSample() throws Exception {
+        // when
+        mockMvc.perform(post("/auth/login")
+                        .header("traceparent", "00-" + TRACE_ID + "-" + PARENT_SPAN_ID + "-00")
+                        .contentType(APPLICATION_JSON)
+                        .content(loginJson()))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(spansOfTrace()).isEmpty();
+    }
+
+    private List<SpanData> spansOfTrace() {
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        return spanExporter.getFinishedSpanItems().stream()
+                .filter(span -> TRACE_ID.equals(span.getTraceId()))
+                .toList();
+    }
+
+    private static SpanData named(List<SpanData> spans, String name) {
+        return spans.stream()
+                .filter(span -> name.equals(span.getName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static boolean isDescendant(List<SpanData> spans, SpanData span, SpanData ancestor) {
+        Map<String, SpanData> byId = spans.stream()
+                .collect(Collectors.toMap(SpanData::getSpanId, Function.identity()));
+        for (SpanData parent = byId.get(span.getParentSpanId()); parent != null;
+             parent = byId.get(parent.getParentSpanId())) {
+            if (parent.getSpanId().equals(ancestor.getSpanId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String loginJson() {
+        return "{\"username\":\"" + JwtRequestBuilderTest.aJwtRequest().build().getUsername()
+                + "\",\"password\":\"100\"}";
+    }
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+}
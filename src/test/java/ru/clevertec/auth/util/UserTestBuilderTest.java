@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.With;
 import ru.clevertec.auth.entity.user.Role;
+import ru.clevertec.auth.entity.user.RoleMask;
 import ru.clevertec.auth.entity.user.User;
 
 import java.util.HashSet;
@@ -27,6 +28,6 @@ public class UserTestBuilderTest implements TestBuilder<User> {
     @Override
     public User build() {
         roles.add(role);
-        return new User(id, uuid, name, userName, password, passwordConfirmation, false, roles);
+        return new User(id, uuid, name, userName, password, passwordConfirmation, false, roles, RoleMask.of(roles), 0L);
     }
 }
@@ -0,0 +1,59 @@
+-- Compares the user lookup used for token validation with and without the user_role join.
+-- Run against a scratch database with the Liquibase schema applied:
+--   psql -d nms_auth_bench -f role_mask-vs-user_role-join.sql
+-- Each lookup is executed with EXPLAIN (ANALYZE, BUFFERS); compare the "Execution Time"
+-- and "Buffers: shared hit/read" lines of the two variants.
+
+\timing on
+
+truncate user_role, users restart identity cascade;
+
+insert into users (uuid, name, username, password, is_archive, role_mask)
+select gen_random_uuid(),
+       'Bench user ' || i,
+       'bench_user_' || i,
+       '$2a$10$XkCSKhDyelpnwjrSGaXwCONG6vqDdrw4tqkFSjkX2oX5EOLAVOobS',
+       false,
+       case when i % 100 = 0 then 3 else 2 end
+from generate_series(1, 5000000) as i;
+
+insert into user_role (user_id, role_id)
+select u.id, r.id
+from users u
+         join roles r on r.name = 'ROLE_SUBSCRIBER';
+
+insert into user_role (user_id, role_id)
+select u.id, r.id
+from users u
+         join roles r on r.name = 'ROLE_ADMIN'
+where u.id % 100 = 0;
+
+vacuum analyze users;
+vacuum analyze user_role;
+vacuum analyze roles;
+
+-- Lookup with the denormalized role mask.
+explain (analyze, buffers)
+select u.id, u.uuid, u.name, u.username, u.password, u.is_archive, u.role_mask
+from users u
+where u.id = 4242400;
+
+explain (analyze, buffers)
+select u.id, u.uuid, u.name, u.username, u.password, u.is_archive, u.role_mask
+from users u
+where u.username = 'bench_user_4242400';
+
+-- Lookup joining users -> user_role -> roles.
+explain (analyze, buffers)
+select u.id, u.uuid, u.name, u.username, u.password, u.is_archive, r.name
+from users u
+         left join user_role ur on ur.user_id = u.id
+         left join roles r on r.id = ur.role_id
+where u.id = 4242400;
+
+explain (analyze, buffers)
+select u.id, u.uuid, u.name, u.username, u.password, u.is_archive, r.name
+from users u
+         left join user_role ur on ur.user_id = u.id
+         left join roles r on r.id = ur.role_id
+where u.username = 'bench_user_4242400';